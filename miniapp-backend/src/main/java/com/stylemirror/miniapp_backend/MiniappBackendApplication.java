@@ -4,9 +4,11 @@ import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(exclude = {FlywayAutoConfiguration.class})
 @MapperScan({"com.stylemirror.miniapp_backend.repository", "com.stylemirror.miniapp_backend.mapper"})
+@EnableScheduling
 public class MiniappBackendApplication {
 
 	public static void main(String[] args) {
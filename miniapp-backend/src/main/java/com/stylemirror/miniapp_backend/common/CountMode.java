@@ -0,0 +1,25 @@
+package com.stylemirror.miniapp_backend.common;
+
+/**
+ * 分页总数统计方式
+ */
+public enum CountMode {
+    /**
+     * 每次执行COUNT(*)（默认，与原有行为一致）
+     */
+    EXACT,
+    /**
+     * 精确COUNT(*)结果按查询条件缓存一段时间
+     */
+    CACHED,
+    /**
+     * 不统计总数，多查一条判断是否有下一页（total返回-1）
+     */
+    NONE,
+    /**
+     * 无筛选条件时使用表统计信息（information_schema.TABLES.TABLE_ROWS）估算总数。
+     * 表统计信息只有整表行数，有任何筛选条件时无法估算，按CACHED处理（缓存的精确COUNT）；
+     * 商品信息流总是按status筛选，因此对信息流而言与CACHED相同（totalApproximate为false）
+     */
+    APPROXIMATE
+}
@@ -0,0 +1,45 @@
+package com.stylemirror.miniapp_backend.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * 游标分页响应DTO
+ * 不返回总数，通过nextCursor获取下一页
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+    /**
+     * 数据列表
+     */
+    private List<T> content;
+
+    /**
+     * 每页大小
+     */
+    private int size;
+
+    /**
+     * 下一页游标（没有下一页时为null）
+     */
+    private String nextCursor;
+
+    /**
+     * 是否有下一页
+     */
+    private boolean hasNext;
+
+    /**
+     * 创建游标分页响应
+     */
+    public static <T> CursorPageResponse<T> of(List<T> content, int size, String nextCursor) {
+        return new CursorPageResponse<>(content, size, nextCursor, nextCursor != null);
+    }
+}
@@ -51,6 +51,11 @@ public class PageResponse<T> {
      */
     private boolean hasPrevious;
     
+    /**
+     * 总数是否为估算值
+     */
+    private boolean totalApproximate;
+    
     /**
      * 创建分页响应
      */
@@ -65,5 +70,36 @@ public class PageResponse<T> {
         response.setHasPrevious(page > 0);
         return response;
     }
+    
+    /**
+     * 创建总数为估算值的分页响应
+     */
+    public static <T> PageResponse<T> ofApproximate(List<T> content, int page, int size, long approximateTotal) {
+        PageResponse<T> response = of(content, page, size, approximateTotal);
+        response.setTotalApproximate(true);
+        return response;
+    }
+    
+    /**
+     * 创建不含总数的分页响应（total和totalPages为-1）
+     */
+    public static <T> PageResponse<T> withoutTotal(List<T> content, int page, int size, boolean hasNext) {
+        PageResponse<T> response = new PageResponse<>();
+        response.setContent(content);
+        response.setPage(page);
+        response.setSize(size);
+        response.setTotal(-1);
+        response.setTotalPages(-1);
+        response.setHasNext(hasNext);
+        response.setHasPrevious(page > 0);
+        return response;
+    }
+    
+    /**
+     * 替换数据列表，保留分页信息
+     */
+    public <R> PageResponse<R> withContent(List<R> newContent) {
+        return new PageResponse<>(newContent, page, size, total, totalPages, hasNext, hasPrevious, totalApproximate);
+    }
 }
 
@@ -0,0 +1,193 @@
+package com.stylemirror.miniapp_backend.config;
+
+import com.stylemirror.miniapp_backend.util.CircuitBreaker;
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.lettuce.core.RedisConnectionException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisSentinelConnection;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 带熔断的Redis连接工厂
+ * 包装实际的连接工厂，返回的连接每条命令都经过熔断器：连接失败、超时或慢调用比例过高时熔断，
+ * 熔断期间命令不访问Redis，直接抛出 RedisCircuitOpenException（调用方已有的异常降级逻辑随即生效），
+ * 等待时间结束后放行少量探测命令，成功则恢复。
+ * 业务错误（如脚本错误、类型错误）说明Redis可用，不计入失败
+ */
+@Slf4j
+public class CircuitBreakingRedisConnectionFactory implements RedisConnectionFactory {
+
+    // 不经过熔断器的方法：连接状态、订阅（订阅连接由监听容器自行重连）
+    private static final Set<String> PASS_THROUGH = Set.of(
+            "close", "isClosed", "getNativeConnection", "isQueueing", "isPipelined",
+            "getSentinelConnection", "subscribe", "pSubscribe", "getSubscription", "isSubscribed");
+    // 开启管道/事务的方法：熔断期间直接拒绝（管道中的命令会立即发出），本身不计入统计
+    private static final Set<String> BEGIN = Set.of("openPipeline", "multi");
+    // 真正发送管道/事务命令的方法
+    private static final Set<String> FLUSH = Set.of("closePipeline", "exec", "discard");
+
+    private final RedisConnectionFactory delegate;
+    private final CircuitBreaker breaker;
+    private final AtomicReference<CircuitBreaker.State> lastState = new AtomicReference<>(CircuitBreaker.State.CLOSED);
+
+    public CircuitBreakingRedisConnectionFactory(RedisConnectionFactory delegate, CircuitBreaker breaker) {
+        this.delegate = delegate;
+        this.breaker = breaker;
+    }
+
+    public CircuitBreaker getBreaker() {
+        return breaker;
+    }
+
+    @Override
+    public RedisConnection getConnection() {
+        if (!breaker.isCallPermitted()) {
+            throw new RedisCircuitOpenException();
+        }
+        RedisConnection connection;
+        try {
+            connection = delegate.getConnection();
+        } catch (RuntimeException e) {
+            if (isInfrastructureFailure(e)) {
+                breaker.onFailure(0);
+                logTransition();
+            }
+            throw e;
+        }
+        return (RedisConnection) wrap(connection, connection);
+    }
+
+    @Override
+    public RedisClusterConnection getClusterConnection() {
+        return delegate.getClusterConnection();
+    }
+
+    @Override
+    public boolean getConvertPipelineAndTxResults() {
+        return delegate.getConvertPipelineAndTxResults();
+    }
+
+    @Override
+    public RedisSentinelConnection getSentinelConnection() {
+        return delegate.getSentinelConnection();
+    }
+
+    @Override
+    public DataAccessException translateExceptionIfPossible(RuntimeException ex) {
+        return delegate.translateExceptionIfPossible(ex);
+    }
+
+    /**
+     * 代理连接或其子命令接口（keyCommands()、stringCommands()等）
+     */
+    private Object wrap(Object target, RedisConnection connection) {
+        Class<?>[] interfaces = ClassUtils.getAllInterfacesForClass(target.getClass(), getClass().getClassLoader());
+        return Proxy.newProxyInstance(getClass().getClassLoader(), interfaces, new Handler(target, connection));
+    }
+
+    private class Handler implements InvocationHandler {
+        private final Object target;
+        private final RedisConnection connection;
+
+        Handler(Object target, RedisConnection connection) {
+            this.target = target;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> invokeTarget(method, args);
+                };
+            }
+            if (method.getName().endsWith("Commands") && method.getParameterCount() == 0
+                    && method.getReturnType().isInterface()) {
+                Object commands = invokeTarget(method, args);
+                return commands != null ? wrap(commands, connection) : null;
+            }
+            // 管道/事务中的命令只是入队，在 closePipeline/exec 时统一计入
+            String name = method.getName();
+            boolean queued = connection.isPipelined() || connection.isQueueing();
+            if (BEGIN.contains(name) && !queued) {
+                if (!breaker.isCallPermitted()) {
+                    throw new RedisCircuitOpenException();
+                }
+                return invokeTarget(method, args);
+            }
+            if (PASS_THROUGH.contains(name) || queued && !FLUSH.contains(name)) {
+                return invokeTarget(method, args);
+            }
+
+            if (!breaker.tryAcquire()) {
+                throw new RedisCircuitOpenException();
+            }
+            long start = System.nanoTime();
+            try {
+                Object result = invokeTarget(method, args);
+                breaker.onSuccess(System.nanoTime() - start);
+                return result;
+            } catch (RuntimeException e) {
+                if (isInfrastructureFailure(e)) {
+                    breaker.onFailure(System.nanoTime() - start);
+                } else {
+                    breaker.onSuccess(System.nanoTime() - start);
+                }
+                throw e;
+            } finally {
+                logTransition();
+            }
+        }
+
+        private Object invokeTarget(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+
+    /**
+     * 是否为Redis不可用类的异常（连接失败、超时、IO异常）
+     */
+    static boolean isInfrastructureFailure(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof DataAccessResourceFailureException || t instanceof QueryTimeoutException
+                    || t instanceof RedisConnectionException || t instanceof RedisCommandTimeoutException
+                    || t instanceof TimeoutException || t instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void logTransition() {
+        CircuitBreaker.State state = breaker.state();
+        CircuitBreaker.State previous = lastState.get();
+        if (state != previous && lastState.compareAndSet(previous, state)) {
+            if (state == CircuitBreaker.State.OPEN) {
+                log.warn("Redis熔断器打开（{} -> OPEN），暂停访问Redis: {}", previous, breaker.snapshot());
+            } else {
+                log.info("Redis熔断器状态变化: {} -> {}", previous, state);
+            }
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.stylemirror.miniapp_backend.config;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.extern.slf4j.Slf4j;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.util.ClassUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 紧凑的Redis值序列化器
+ *
+ * 格式：魔数(0xFE) | 格式版本 | 编码 | 标志位 | [类型名长度(2字节) + 类型名] | [原始长度(4字节)] | 数据
+ * - 编码可选JSON或Smile（二进制JSON，属性名反向引用，体积更小、解析更快）
+ * - 本项目的类型（实体、DTO）写入去掉包前缀的类型名，读取时直接反序列化为目标类型，不再经过 LinkedHashMap + convertValue
+ * - 数据超过阈值时使用LZ4压缩（压缩后更小才使用）
+ *
+ * 不以魔数开头的数据按旧格式（GenericJackson2JsonRedisSerializer写入的纯JSON）读取，滚动发布期间新旧数据可以共存
+ */
+@Slf4j
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    /**
+     * 值编码方式
+     */
+    public enum Codec {
+        // 旧格式：纯JSON，不带头部（灰度第一阶段使用，旧版本节点也能读取）
+        LEGACY((byte) 0),
+        JSON((byte) 1),
+        SMILE((byte) 2);
+
+        private final byte id;
+
+        Codec(byte id) {
+            this.id = id;
+        }
+
+        static Codec of(byte id) {
+            for (Codec codec : values()) {
+                if (codec.id == id) {
+                    return codec;
+                }
+            }
+            throw new SerializationException("未知的缓存编码: " + id);
+        }
+    }
+
+    /**
+     * 序列化回调，用于统计耗时和字节数
+     */
+    public interface Listener {
+        /**
+         * @param operation serialize 或 deserialize
+         * @param bytes 序列化后的字节数（含头部）
+         */
+        void onSerialization(String operation, long nanos, int bytes);
+    }
+
+    private static final byte MAGIC = (byte) 0xFE;
+    private static final byte FORMAT_VERSION = 1;
+    private static final int FLAG_LZ4 = 1;
+    private static final int FLAG_TYPED = 1 << 1;
+    // 写入类型名的包前缀，只还原本项目的类型
+    private static final String TYPED_PACKAGE = "com.stylemirror.miniapp_backend.";
+
+    private final Codec codec;
+    private final int compressThreshold;
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper smileMapper;
+    private final GenericJackson2JsonRedisSerializer legacySerializer;
+    private final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
+    private final LZ4FastDecompressor decompressor = LZ4Factory.fastestInstance().fastDecompressor();
+    private final Map<String, Class<?>> types = new ConcurrentHashMap<>();
+    private final Listener listener;
+
+    /**
+     * @param codec 写入使用的编码
+     * @param compressThreshold 超过该字节数时尝试LZ4压缩，小于等于0表示不压缩
+     */
+    public CompactRedisSerializer(Codec codec, int compressThreshold) {
+        this(codec, compressThreshold, null);
+    }
+
+    /**
+     * @param listener 序列化回调，可为null
+     */
+    public CompactRedisSerializer(Codec codec, int compressThreshold, Listener listener) {
+        this.codec = codec;
+        this.listener = listener;
+        this.compressThreshold = compressThreshold;
+        this.jsonMapper = configure(new ObjectMapper());
+        this.smileMapper = configure(new ObjectMapper(new SmileFactory()));
+        this.legacySerializer = new GenericJackson2JsonRedisSerializer(jsonMapper);
+    }
+
+    private static ObjectMapper configure(ObjectMapper objectMapper) {
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        return objectMapper;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (listener == null) {
+            return doSerialize(value);
+        }
+        long start = System.nanoTime();
+        byte[] bytes = doSerialize(value);
+        listener.onSerialization("serialize", System.nanoTime() - start, bytes != null ? bytes.length : 0);
+        return bytes;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (listener == null || bytes == null || bytes.length == 0) {
+            return doDeserialize(bytes);
+        }
+        long start = System.nanoTime();
+        Object value = doDeserialize(bytes);
+        listener.onSerialization("deserialize", System.nanoTime() - start, bytes.length);
+        return value;
+    }
+
+    private byte[] doSerialize(Object value) {
+        if (codec == Codec.LEGACY) {
+            return legacySerializer.serialize(value);
+        }
+        if (value == null) {
+            return new byte[0];
+        }
+        try {
+            byte[] data = mapper(codec).writeValueAsBytes(value);
+            int flags = 0;
+            int rawLength = data.length;
+            if (compressThreshold > 0 && data.length > compressThreshold) {
+                byte[] compressed = compressor.compress(data);
+                if (compressed.length < data.length) {
+                    data = compressed;
+                    flags |= FLAG_LZ4;
+                }
+            }
+            String typeName = value.getClass().getName();
+            byte[] type = typeName.startsWith(TYPED_PACKAGE)
+                    ? typeName.substring(TYPED_PACKAGE.length()).getBytes(StandardCharsets.UTF_8) : null;
+            if (type != null) {
+                flags |= FLAG_TYPED;
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length + 64);
+            out.write(MAGIC);
+            out.write(FORMAT_VERSION);
+            out.write(codec.id);
+            out.write(flags);
+            if (type != null) {
+                out.write(type.length >>> 8);
+                out.write(type.length);
+                out.write(type);
+            }
+            if ((flags & FLAG_LZ4) != 0) {
+                out.write(ByteBuffer.allocate(4).putInt(rawLength).array());
+            }
+            out.write(data);
+            return out.toByteArray();
+        } catch (Exception e) {
+            throw new SerializationException("序列化缓存值失败: " + value.getClass().getName(), e);
+        }
+    }
+
+    private Object doDeserialize(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return legacySerializer.deserialize(bytes);
+        }
+        if (bytes[1] != FORMAT_VERSION) {
+            throw new SerializationException("不支持的缓存格式版本: " + bytes[1]);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 2, bytes.length - 2);
+        Codec valueCodec = Codec.of(buffer.get());
+        int flags = buffer.get();
+        String typeName = null;
+        if ((flags & FLAG_TYPED) != 0) {
+            int length = buffer.getShort() & 0xFFFF;
+            typeName = new String(bytes, buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        }
+        byte[] data;
+        int offset;
+        int length;
+        if ((flags & FLAG_LZ4) != 0) {
+            int rawLength = buffer.getInt();
+            data = decompressor.decompress(bytes, buffer.position(), rawLength);
+            offset = 0;
+            length = rawLength;
+        } else {
+            data = bytes;
+            offset = buffer.position();
+            length = buffer.remaining();
+        }
+
+        ObjectMapper mapper = mapper(valueCodec);
+        try {
+            Class<?> type = typeName != null ? resolve(typeName) : null;
+            if (type != null) {
+                try {
+                    return mapper.readValue(data, offset, length, type);
+                } catch (Exception e) {
+                    // 类型结构已变化（如字段类型调整），退化为通用结构，由调用方转换
+                    log.debug("按类型反序列化缓存值失败，退化为通用结构: {}", typeName, e);
+                }
+            }
+            return mapper.readValue(data, offset, length, Object.class);
+        } catch (Exception e) {
+            throw new SerializationException("反序列化缓存值失败", e);
+        }
+    }
+
+    private ObjectMapper mapper(Codec valueCodec) {
+        return valueCodec == Codec.SMILE ? smileMapper : jsonMapper;
+    }
+
+    /**
+     * 解析类型名，类已不存在时返回null
+     */
+    private Class<?> resolve(String typeName) {
+        Class<?> type = types.get(typeName);
+        if (type != null) {
+            return type;
+        }
+        try {
+            type = ClassUtils.forName(TYPED_PACKAGE + typeName, getClass().getClassLoader());
+            types.put(typeName, type);
+            return type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+}
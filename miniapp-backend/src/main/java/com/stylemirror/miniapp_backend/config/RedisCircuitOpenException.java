@@ -0,0 +1,20 @@
+package com.stylemirror.miniapp_backend.config;
+
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+/**
+ * Redis熔断期间的快速失败异常
+ * 不访问Redis直接抛出，调用方按Redis不可用降级（一级缓存或直接查库）；
+ * 熔断期间调用频繁，不填充堆栈
+ */
+public class RedisCircuitOpenException extends RedisConnectionFailureException {
+
+    public RedisCircuitOpenException() {
+        super("Redis熔断中，跳过Redis访问");
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -4,6 +4,8 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.stylemirror.miniapp_backend.service.CacheMetrics;
+import com.stylemirror.miniapp_backend.util.CircuitBreaker;
 import io.lettuce.core.ClientOptions;
 import io.lettuce.core.protocol.ProtocolVersion;
 import org.springframework.beans.factory.annotation.Value;
@@ -15,7 +17,7 @@ import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
@@ -38,6 +40,18 @@ public class RedisConfig {
     @Value("${spring.data.redis.database:0}")
     private int database;
 
+    // 命令超时，超时的命令计入熔断失败
+    @Value("${spring.data.redis.timeout:1000ms}")
+    private Duration timeout;
+
+    // 缓存值编码：legacy（默认，旧版纯JSON，灰度期间旧版本节点也能读取）、smile、json
+    @Value("${cache.codec:legacy}")
+    private String codec;
+
+    // 缓存值超过该字节数时LZ4压缩，0表示不压缩
+    @Value("${cache.compress-threshold:1024}")
+    private int compressThreshold;
+
     /**
      * 创建支持Java 8时间类型的ObjectMapper（专门用于Redis序列化）
      */
@@ -53,12 +67,50 @@ public class RedisConfig {
         return objectMapper;
     }
 
+    // Redis熔断：统计最近window次命令，至少minimum-calls次后失败（含慢调用）比例达到failure-rate即熔断
+    @Value("${cache.redis-breaker.window:50}")
+    private int breakerWindow;
+
+    @Value("${cache.redis-breaker.minimum-calls:20}")
+    private int breakerMinimumCalls;
+
+    @Value("${cache.redis-breaker.failure-rate:0.5}")
+    private double breakerFailureRate;
+
+    @Value("${cache.redis-breaker.slow-call-millis:500}")
+    private long breakerSlowCallMillis;
+
+    // 熔断持续时间，之后放行probes次探测命令
+    @Value("${cache.redis-breaker.open-millis:10000}")
+    private long breakerOpenMillis;
+
+    @Value("${cache.redis-breaker.probes:3}")
+    private int breakerProbes;
+
     /**
-     * 配置Redis连接工厂，显式处理密码和协议版本
+     * Redis熔断器
+     */
+    @Bean
+    public CircuitBreaker redisCircuitBreaker() {
+        return new CircuitBreaker(breakerWindow, breakerMinimumCalls, breakerFailureRate,
+                breakerSlowCallMillis, breakerOpenMillis, breakerProbes);
+    }
+
+    /**
+     * 带熔断的Redis连接工厂，RedisTemplate和消息监听容器都使用它
      */
     @Bean
     @Primary
-    public RedisConnectionFactory redisConnectionFactory() {
+    public RedisConnectionFactory redisConnectionFactory(
+            LettuceConnectionFactory lettuceConnectionFactory, CircuitBreaker redisCircuitBreaker) {
+        return new CircuitBreakingRedisConnectionFactory(lettuceConnectionFactory, redisCircuitBreaker);
+    }
+
+    /**
+     * 配置Redis连接工厂，显式处理密码和协议版本
+     */
+    @Bean
+    public LettuceConnectionFactory lettuceConnectionFactory() {
         RedisStandaloneConfiguration config = new RedisStandaloneConfiguration();
         config.setHostName(host);
         config.setPort(port);
@@ -73,7 +125,7 @@ public class RedisConfig {
                 .clientOptions(ClientOptions.builder()
                         .protocolVersion(ProtocolVersion.RESP2) // 使用RESP2协议
                         .build())
-                .commandTimeout(Duration.ofSeconds(3))
+                .commandTimeout(timeout)
                 .build();
 
         return new LettuceConnectionFactory(config, clientConfig);
@@ -82,12 +134,7 @@ public class RedisConfig {
     @Bean
     @Primary
     public RedisTemplate<String, Object> redisTemplate(
-            RedisConnectionFactory connectionFactory) {
-        // 直接创建ObjectMapper，避免Bean冲突
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
-        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+            RedisConnectionFactory connectionFactory, CacheMetrics cacheMetrics) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
         
@@ -96,13 +143,23 @@ public class RedisConfig {
         template.setKeySerializer(stringSerializer);
         template.setHashKeySerializer(stringSerializer);
         
-        // Value使用JSON序列化器（支持存储对象）
-        // 使用配置好的ObjectMapper创建序列化器
-        GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer(objectMapper);
-        template.setValueSerializer(jsonSerializer);
-        template.setHashValueSerializer(jsonSerializer);
+        // Value使用带版本头的紧凑序列化器（可读取旧的纯JSON数据），序列化耗时和字节数记入缓存指标
+        CompactRedisSerializer valueSerializer = new CompactRedisSerializer(
+                CompactRedisSerializer.Codec.valueOf(codec.toUpperCase()), compressThreshold, cacheMetrics);
+        template.setValueSerializer(valueSerializer);
+        template.setHashValueSerializer(valueSerializer);
         
         template.afterPropertiesSet();
         return template;
     }
-}
\ No newline at end of file
+
+    /**
+     * Redis消息监听容器（用于接收一级缓存失效广播）
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+}
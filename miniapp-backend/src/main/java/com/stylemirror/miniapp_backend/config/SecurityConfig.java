@@ -50,6 +50,8 @@ public class SecurityConfig {
                                 "/api/tts/**"
                         ).permitAll()
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                        // 指标包含缓存Key命名空间、熔断状态等内部信息，只允许管理员（Prometheus抓取时带管理员Token）
+                        .requestMatchers("/actuator/prometheus").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
@@ -2,18 +2,18 @@ package com.stylemirror.miniapp_backend.controller;
 
 import com.stylemirror.miniapp_backend.common.ApiResponse;
 import com.stylemirror.miniapp_backend.domain.ChatMessage;
+import com.stylemirror.miniapp_backend.service.CacheMetrics;
+import com.stylemirror.miniapp_backend.service.CacheService;
 import com.stylemirror.miniapp_backend.service.ChatMessageService;
 import com.stylemirror.miniapp_backend.service.TranslationService;
 import com.stylemirror.miniapp_backend.service.TTSService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/chat")
@@ -23,7 +23,8 @@ public class ChatMessageController {
     private final ChatMessageService chatMessageService;
     private final TranslationService translationService;
     private final TTSService ttsService;
-    private final RedisTemplate<String, String> redisTemplate;
+    private final CacheService cacheService;
+    private final CacheMetrics cacheMetrics;
     
     /**
      * 发送消息
@@ -95,17 +96,19 @@ public class ChatMessageController {
             
             // 先从缓存查询
             String cacheKey = "translation:chat:" + messageId;
-            String cachedTranslation = redisTemplate.opsForValue().get(cacheKey);
+            String cachedTranslation = cacheService.getServiceResult(cacheKey);
             if (cachedTranslation != null) {
                 return ResponseEntity.ok(ApiResponse.success(cachedTranslation));
             }
             
             // 调用翻译服务
+            long start = System.nanoTime();
             String translatedText = translationService.translateToEnglish(text);
+            cacheMetrics.recordLoad(cacheKey, System.nanoTime() - start);
             
             // 缓存翻译结果 - 7天过期
             if (translatedText != null && !translatedText.isEmpty()) {
-                redisTemplate.opsForValue().set(cacheKey, translatedText, 7, TimeUnit.DAYS);
+                cacheService.putServiceResult(cacheKey, translatedText);
             }
             
             return ResponseEntity.ok(ApiResponse.success(translatedText));
@@ -140,17 +143,19 @@ public class ChatMessageController {
             // 先从缓存查询 - 使用文本hash确保不同内容有不同缓存
             String textHash = String.valueOf(text.hashCode());
             String cacheKey = "tts:chat:" + messageId + ":" + voice + ":" + textHash;
-            String cachedAudio = redisTemplate.opsForValue().get(cacheKey);
+            String cachedAudio = cacheService.getServiceResult(cacheKey);
             if (cachedAudio != null) {
                 return ResponseEntity.ok(ApiResponse.success(cachedAudio));
             }
             
             // 调用TTS服务
+            long start = System.nanoTime();
             String audioUrl = ttsService.synthesizeVoice(text, voice, language);
+            cacheMetrics.recordLoad(cacheKey, System.nanoTime() - start);
             
             if (audioUrl != null && !audioUrl.isEmpty()) {
                 // 缓存TTS结果 - 7天过期
-                redisTemplate.opsForValue().set(cacheKey, audioUrl, 7, TimeUnit.DAYS);
+                cacheService.putServiceResult(cacheKey, audioUrl);
                 return ResponseEntity.ok(ApiResponse.success(audioUrl));
             } else {
                 return ResponseEntity.ok(ApiResponse.error(500, "TTS 合成失败"));
@@ -1,6 +1,7 @@
 package com.stylemirror.miniapp_backend.controller;
 
 import com.stylemirror.miniapp_backend.common.ApiResponse;
+import com.stylemirror.miniapp_backend.common.CountMode;
 import com.stylemirror.miniapp_backend.common.PageResponse;
 import com.stylemirror.miniapp_backend.domain.Product;
 import com.stylemirror.miniapp_backend.service.FavoriteService;
@@ -69,11 +70,12 @@ public class FavoriteController {
     public ResponseEntity<ApiResponse<PageResponse<Product>>> getMyFavorites(
             Authentication auth,
             @RequestParam(value = "page", defaultValue = "0") int page,
-            @RequestParam(value = "size", defaultValue = "20") int size) {
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            @RequestParam(value = "countMode", defaultValue = "EXACT") CountMode countMode) {
         Long userId = getUserId(auth);
         log.debug("查询收藏列表，用户ID: {}, 页码: {}, 每页: {}", userId, page, size);
         if (size > 50) size = 50;
-        return ResponseEntity.ok(ApiResponse.success(favoriteService.getFavoriteProducts(userId, page, size)));
+        return ResponseEntity.ok(ApiResponse.success(favoriteService.getFavoriteProducts(userId, page, size, countMode)));
     }
 
     /**
@@ -1,6 +1,7 @@
 package com.stylemirror.miniapp_backend.controller;
 
 import com.stylemirror.miniapp_backend.common.ApiResponse;
+import com.stylemirror.miniapp_backend.common.CountMode;
 import com.stylemirror.miniapp_backend.common.PageResponse;
 import com.stylemirror.miniapp_backend.domain.Message;
 import com.stylemirror.miniapp_backend.service.MessageService;
@@ -84,10 +85,11 @@ public class MessageController {
     public ResponseEntity<ApiResponse<PageResponse<Message>>> getConversations(
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "20") int size,
+            @RequestParam(value = "countMode", defaultValue = "EXACT") CountMode countMode,
             Authentication auth) {
         Long userId = getUserId(auth);
         log.debug("获取会话列表，用户ID: {}, 页码: {}, 每页数量: {}", userId, page, size);
-        PageResponse<Message> result = messageService.getConversationList(userId, page, size);
+        PageResponse<Message> result = messageService.getConversationList(userId, page, size, countMode);
         return ResponseEntity.ok(ApiResponse.success(result));
     }
 
@@ -1,12 +1,15 @@
 package com.stylemirror.miniapp_backend.controller;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.stylemirror.miniapp_backend.common.ApiResponse;
+import com.stylemirror.miniapp_backend.common.CountMode;
 import com.stylemirror.miniapp_backend.common.PageResponse;
 import com.stylemirror.miniapp_backend.domain.Product;
+import com.stylemirror.miniapp_backend.dto.ProductCard;
+import com.stylemirror.miniapp_backend.service.ProductCardService;
 import com.stylemirror.miniapp_backend.service.ProductService;
 import com.stylemirror.miniapp_backend.service.UserService;
+import com.stylemirror.miniapp_backend.util.ImageUrls;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
@@ -29,6 +32,7 @@ import java.util.List;
 public class MyProductController {
     private final ProductService productService;
     private final UserService userService;
+    private final ProductCardService productCardService;
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final com.stylemirror.miniapp_backend.common.TestAuthHelper testAuthHelper;
 
@@ -62,51 +66,24 @@ public class MyProductController {
         }
     }
 
-    /**
-     * 将coverUrl JSON字符串解析为图片URL数组
-     */
-    private List<String> decodeImageUrls(String coverUrl) {
-        if (coverUrl == null || coverUrl.isEmpty()) {
-            return List.of();
-        }
-        try {
-            // 尝试解析为JSON数组
-            if (coverUrl.startsWith("[")) {
-                return objectMapper.readValue(coverUrl, new TypeReference<List<String>>() {});
-            }
-            // 如果不是JSON格式，返回单张图片数组
-            return List.of(coverUrl);
-        } catch (Exception e) {
-            // 解析失败，返回单张图片数组
-            return List.of(coverUrl);
-        }
-    }
-
     /**
      * 查询我发布的商品列表（分页）
      */
     @GetMapping
-    public ResponseEntity<ApiResponse<PageResponse<Product>>> list(
+    public ResponseEntity<ApiResponse<PageResponse<ProductCard>>> list(
             Authentication auth,
             @RequestParam(value = "page", defaultValue = "0") int page,
-            @RequestParam(value = "size", defaultValue = "20") int size) {
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            @RequestParam(value = "countMode", defaultValue = "EXACT") CountMode countMode) {
         Long sellerId = getUserId(auth);
         log.debug("查询我的商品列表，卖家ID: {}, 页码: {}, 每页: {}", sellerId, page, size);
         if (size > 50) size = 50;
         
-        PageResponse<Product> pageResponse = productService.findBySellerId(sellerId, page, size);
-        
-        // 处理每个商品的coverUrl：如果是JSON格式，解析为第一张图片
-        List<Product> products = pageResponse.getContent();
-        for (Product product : products) {
-            if (product.getCoverUrl() != null) {
-                List<String> imageUrls = decodeImageUrls(product.getCoverUrl());
-                // 设置coverUrl为第一张图片，用于列表显示
-                product.setCoverUrl(imageUrls.isEmpty() ? null : imageUrls.get(0));
-            }
-        }
+        PageResponse<Product> pageResponse = productService.findBySellerId(sellerId, page, size, countMode);
         
-        return ResponseEntity.ok(ApiResponse.success(pageResponse));
+        // 商品卡片的coverUrl已解析为第一张图片，用于列表显示
+        return ResponseEntity.ok(ApiResponse.success(
+                pageResponse.withContent(productCardService.toCards(pageResponse.getContent()))));
     }
 
     /**
@@ -149,7 +126,7 @@ public class MyProductController {
         Product updated = productService.updateProduct(id, sellerId, updateData);
         
         // 返回商品时，将coverUrl解析为imageUrls
-        List<String> imageUrls = decodeImageUrls(updated.getCoverUrl());
+        List<String> imageUrls = ImageUrls.decode(updated.getCoverUrl());
         updated.setCoverUrl(imageUrls.isEmpty() ? null : imageUrls.get(0));
         
         return ResponseEntity.ok(ApiResponse.success(updated));
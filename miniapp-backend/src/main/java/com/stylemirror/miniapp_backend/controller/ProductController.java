@@ -1,28 +1,38 @@
 package com.stylemirror.miniapp_backend.controller;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.stylemirror.miniapp_backend.common.ApiResponse;
+import com.stylemirror.miniapp_backend.common.CountMode;
 import com.stylemirror.miniapp_backend.common.PageResponse;
 import com.stylemirror.miniapp_backend.domain.Product;
-import com.stylemirror.miniapp_backend.domain.User;
+import com.stylemirror.miniapp_backend.dto.ProductCard;
 import com.stylemirror.miniapp_backend.service.CategoryService;
 import com.stylemirror.miniapp_backend.service.ModerationService;
+import com.stylemirror.miniapp_backend.service.ProductCardService;
+import com.stylemirror.miniapp_backend.service.ProductGeoIndex;
 import com.stylemirror.miniapp_backend.service.ProductService;
-import com.stylemirror.miniapp_backend.service.UserService;
+import com.stylemirror.miniapp_backend.service.RenderedResponseCache;
+import com.stylemirror.miniapp_backend.util.GeoUtils;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * 商品控制器
@@ -35,8 +45,10 @@ import java.util.Map;
 @Slf4j
 public class ProductController {
     private final ProductService productService;
+    private final ProductGeoIndex productGeoIndex;
     private final CategoryService categoryService;
-    private final UserService userService;
+    private final ProductCardService productCardService;
+    private final RenderedResponseCache renderedResponseCache;
     private final ModerationService moderationService;
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final com.stylemirror.miniapp_backend.common.TestAuthHelper testAuthHelper;
@@ -71,56 +83,53 @@ public class ProductController {
         }
     }
 
-    /**
-     * 将coverUrl JSON字符串解析为图片URL数组
-     */
-    private List<String> decodeImageUrls(String coverUrl) {
-        if (coverUrl == null || coverUrl.isEmpty()) {
-            return List.of();
-        }
-        try {
-            // 尝试解析为JSON数组
-            if (coverUrl.startsWith("[")) {
-                List<String> urls = objectMapper.readValue(coverUrl, new TypeReference<List<String>>() {});
-                return urls != null && !urls.isEmpty() ? urls : List.of();
-            }
-            // 如果不是JSON格式，返回单张图片数组
-            return List.of(coverUrl);
-        } catch (Exception e) {
-            log.warn("解析图片URL失败，使用原始值，coverUrl: {}", coverUrl, e);
-            // 解析失败，返回单张图片数组
-            return List.of(coverUrl);
-        }
-    }
-
     /**
      * 查询所有商品列表（分页）
      * @param page 页码
      * @param size 每页数量
      * @param sortBy 排序字段：latest（最新）、price（价格）
      * @param sortOrder 排序方向：asc（升序）、desc（降序）
+     * @param cursor 游标（传入时使用游标分页，返回nextCursor而不是总数；首页传空字符串）
+     * @param countMode 页码分页的总数统计方式（EXACT、CACHED、NONE、APPROXIMATE）
      */
     @GetMapping
-    public ResponseEntity<ApiResponse<PageResponse<Product>>> list(
+    public ResponseEntity<?> list(
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "20") int size,
             @RequestParam(value = "sortBy", defaultValue = "latest") String sortBy,
-            @RequestParam(value = "sortOrder", defaultValue = "desc") String sortOrder) {
-        log.debug("查询所有商品列表，页码: {}, 每页: {}, 排序: {} {}", page, size, sortBy, sortOrder);
+            @RequestParam(value = "sortOrder", defaultValue = "desc") String sortOrder,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "countMode", defaultValue = "EXACT") CountMode countMode,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.debug("查询所有商品列表，页码: {}, 每页: {}, 排序: {} {}, 游标: {}", page, size, sortBy, sortOrder, cursor);
         if (size > 50) size = 50; // 限制最大每页数量
-        return ResponseEntity.ok(ApiResponse.success(productService.findAll(page, size, sortBy, sortOrder)));
+        if (cursor != null) {
+            return ResponseEntity.ok(ApiResponse.success(productService.findAllByCursor(cursor, size, sortBy, sortOrder)));
+        }
+        if (page == 0) {
+            // 首页直接返回已序列化的响应
+            int pageSize = size;
+            return rendered(renderedResponseCache.feedKey(null, feedVariant(sortBy, sortOrder, pageSize, countMode)),
+                    ifNoneMatch, () -> productService.findAll(page, pageSize, sortBy, sortOrder, countMode));
+        }
+        return ResponseEntity.ok(ApiResponse.success(productService.findAll(page, size, sortBy, sortOrder, countMode)));
     }
 
     /**
      * 根据关键词搜索商品（分页）
+     * @param cursor 游标（传入时使用游标分页；首页传空字符串）
      */
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse<PageResponse<Product>>> search(
+    public ResponseEntity<ApiResponse<?>> search(
             @RequestParam("q") String keyword,
             @RequestParam(value = "page", defaultValue = "0") int page,
-            @RequestParam(value = "size", defaultValue = "20") int size) {
-        log.debug("搜索商品，关键词: {}, 页码: {}, 每页: {}", keyword, page, size);
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        log.debug("搜索商品，关键词: {}, 页码: {}, 每页: {}, 游标: {}", keyword, page, size, cursor);
         if (size > 50) size = 50;
+        if (cursor != null) {
+            return ResponseEntity.ok(ApiResponse.success(productService.searchByCursor(keyword, cursor, size)));
+        }
         return ResponseEntity.ok(ApiResponse.success(productService.search(keyword, page, size)));
     }
 
@@ -131,74 +140,72 @@ public class ProductController {
      * @param size 每页数量
      * @param sortBy 排序字段：latest（最新）、price（价格）
      * @param sortOrder 排序方向：asc（升序）、desc（降序）
+     * @param cursor 游标（传入时使用游标分页；首页传空字符串）
+     * @param countMode 页码分页的总数统计方式
      */
     @GetMapping("/by-category/{categoryId}")
-    public ResponseEntity<ApiResponse<PageResponse<Product>>> byCategory(
+    public ResponseEntity<?> byCategory(
             @PathVariable("categoryId") Long categoryId,
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "20") int size,
             @RequestParam(value = "sortBy", defaultValue = "latest") String sortBy,
-            @RequestParam(value = "sortOrder", defaultValue = "desc") String sortOrder) {
-        log.debug("根据分类查询商品，分类ID: {}, 页码: {}, 每页: {}, 排序: {} {}", categoryId, page, size, sortBy, sortOrder);
+            @RequestParam(value = "sortOrder", defaultValue = "desc") String sortOrder,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "countMode", defaultValue = "EXACT") CountMode countMode,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.debug("根据分类查询商品，分类ID: {}, 页码: {}, 每页: {}, 排序: {} {}, 游标: {}", categoryId, page, size, sortBy, sortOrder, cursor);
         if (size > 50) size = 50;
-        return ResponseEntity.ok(ApiResponse.success(productService.findByCategoryId(categoryId, page, size, sortBy, sortOrder)));
+        if (cursor != null) {
+            return ResponseEntity.ok(ApiResponse.success(
+                    productService.findByCategoryIdByCursor(categoryId, cursor, size, sortBy, sortOrder)));
+        }
+        if (page == 0) {
+            int pageSize = size;
+            return rendered(renderedResponseCache.feedKey(categoryId, feedVariant(sortBy, sortOrder, pageSize, countMode)),
+                    ifNoneMatch, () -> productService.findByCategoryId(categoryId, page, pageSize, sortBy, sortOrder, countMode));
+        }
+        return ResponseEntity.ok(ApiResponse.success(productService.findByCategoryId(categoryId, page, size, sortBy, sortOrder, countMode)));
     }
 
+    /**
+     * 批量查询商品详情请求
+     */
+    public record BatchRequest(@NotNull List<Long> ids) {}
+
     /**
      * 查询商品详情（包含卖家信息和分类信息）
+     * 返回强ETag，客户端带 If-None-Match 重新请求且内容未变时返回304
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> detail(@PathVariable("id") Long id) {
+    public ResponseEntity<byte[]> detail(@PathVariable("id") Long id,
+                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.debug("查询商品详情，ID: {}", id);
-        Product product = productService.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("商品不存在"));
-        
-        // 验证商品是否已发布（小程序只能查看已发布的商品）
-        if (!"PUBLISHED".equals(product.getStatus())) {
-            throw new IllegalArgumentException("商品不可用");
-        }
-        Map<String, Object> result = new HashMap<>();
-        result.put("id", product.getId());
-        result.put("name", product.getName());
-        result.put("description", product.getDescription());
-        // 解析coverUrl为imageUrls数组
-        try {
-            List<String> imageUrls = decodeImageUrls(product.getCoverUrl());
-            result.put("coverUrl", imageUrls.isEmpty() ? null : imageUrls.get(0));
-            result.put("imageUrls", imageUrls);
-        } catch (Exception e) {
-            log.error("处理商品图片URL失败", e);
-            // 如果解析失败，使用原始coverUrl
-            result.put("coverUrl", product.getCoverUrl());
-            result.put("imageUrls", product.getCoverUrl() != null ? List.of(product.getCoverUrl()) : List.of());
-        }
-        result.put("price", product.getPrice());
-        result.put("stock", product.getStock());
-        result.put("categoryId", product.getCategoryId());
-        result.put("sellerId", product.getSellerId());
-        result.put("latitude", product.getLatitude());
-        result.put("longitude", product.getLongitude());
-        result.put("status", product.getStatus());
-        result.put("createdAt", product.getCreatedAt());
-        
-        // 加载卖家信息
-        if (product.getSellerId() != null) {
-            userService.findById(product.getSellerId()).ifPresent(seller -> {
-                Map<String, Object> sellerInfo = new HashMap<>();
-                sellerInfo.put("id", seller.getId());
-                sellerInfo.put("nickname", seller.getNickname());
-                sellerInfo.put("avatarUrl", seller.getAvatarUrl());
-                result.put("seller", sellerInfo);
-            });
-        }
-        
-        // 加载分类信息
-        if (product.getCategoryId() != null) {
-            categoryService.findById(product.getCategoryId()).ifPresent(category -> {
-                result.put("categoryName", category.getName());
-            });
+        return rendered(renderedResponseCache.productKey(id), ifNoneMatch, () -> {
+            ProductCard card = productCardService.findById(id)
+                    .orElseThrow(() -> new IllegalArgumentException("商品不存在"));
+            
+            // 验证商品是否已发布（小程序只能查看已发布的商品）
+            if (!"PUBLISHED".equals(card.getStatus())) {
+                throw new IllegalArgumentException("商品不可用");
+            }
+            return card;
+        });
+    }
+
+    /**
+     * 批量查询商品详情（收藏、订单、聊天列表渲染使用）
+     * 卡片缓存一次批量查询，未命中的商品、卖家、分类再各批量查一次
+     * 不存在或未发布的商品直接跳过，返回顺序与请求ID顺序一致
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<List<ProductCard>>> batchDetail(@Valid @RequestBody BatchRequest req) {
+        if (req.ids().size() > 50) {
+            throw new IllegalArgumentException("一次最多查询50个商品");
         }
-        
+        log.debug("批量查询商品详情，数量: {}", req.ids().size());
+        List<ProductCard> result = productCardService.findByIds(req.ids()).values().stream()
+                .filter(card -> "PUBLISHED".equals(card.getStatus()))
+                .toList();
         return ResponseEntity.ok(ApiResponse.success(result));
     }
 
@@ -211,79 +218,112 @@ public class ProductController {
     ) {}
 
     /**
-     * 使用Haversine公式计算两点间距离（公里）
-     * @param lat1 第一个点的纬度
-     * @param lng1 第一个点的经度
-     * @param lat2 第二个点的纬度
-     * @param lng2 第二个点的经度
-     * @return 距离（公里）
+     * 附近商品列表项（商品卡片字段 + 距离）
      */
-    private double calculateDistance(double lat1, double lng1, double lat2, double lng2) {
-        final int R = 6371; // 地球半径（公里）
-        
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLng = Math.toRadians(lng2 - lng1);
-        
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-                   Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
-                   Math.sin(dLng / 2) * Math.sin(dLng / 2);
-        
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        
-        return R * c;
-    }
+    public record NearbyItem(@JsonUnwrapped ProductCard card, double distanceKm) {}
 
     /**
-     * 查询附近商品（使用Haversine公式计算距离）
+     * 查询附近商品（网格索引 + 外接矩形粗筛 + Haversine精确距离，按距离升序）
+     * @param page 页码（从0开始，仅在传入size时生效）
+     * @param size 每页数量（不传时返回半径内全部商品，兼容旧客户端）
      */
     @GetMapping("/nearby")
-    public ResponseEntity<ApiResponse<List<Map<String, Object>>>> nearby(@RequestParam("lat") double lat,
-                                                                        @RequestParam("lng") double lng,
-                                                                        @RequestParam(value = "radiusKm", defaultValue = "3") double radiusKm) {
-        log.debug("查询附近商品，纬度: {}, 经度: {}, 半径: {}km", lat, lng, radiusKm);
-        
-        List<Product> all = productService.findAll();
+    public ResponseEntity<ApiResponse<?>> nearby(@RequestParam("lat") double lat,
+                                                 @RequestParam("lng") double lng,
+                                                 @RequestParam(value = "radiusKm", defaultValue = "3") double radiusKm,
+                                                 @RequestParam(value = "page", defaultValue = "0") int page,
+                                                 @RequestParam(value = "size", required = false) Integer size) {
+        log.debug("查询附近商品，纬度: {}, 经度: {}, 半径: {}km, 页码: {}, 每页: {}", lat, lng, radiusKm, page, size);
         
-        // 使用Haversine公式计算距离，过滤并排序
-        List<Map<String, Object>> result = all.stream()
-                .filter(p -> "PUBLISHED".equals(p.getStatus()))  // 只查询已发布的商品
-                .filter(p -> p.getLatitude() != null && p.getLongitude() != null)
-                .map(p -> {
-                    double distance = calculateDistance(lat, lng, p.getLatitude(), p.getLongitude());
-                    return Map.of(
-                            "product", p,
-                            "distanceKm", distance
-                    );
-                })
-                .filter(entry -> (Double) entry.get("distanceKm") <= radiusKm)
-                .sorted((a, b) -> Double.compare((Double) a.get("distanceKm"), (Double) b.get("distanceKm")))
-                .map(entry -> {
-                    Map<String, Object> item = new HashMap<>();
-                    Product product = (Product) entry.get("product");
-                    
-                    // 解析图片URL
-                    List<String> imageUrls = decodeImageUrls(product.getCoverUrl());
-                    
-                    item.put("id", product.getId());
-                    item.put("name", product.getName());
-                    item.put("description", product.getDescription());
-                    item.put("coverUrl", imageUrls.isEmpty() ? null : imageUrls.get(0));
-                    item.put("imageUrls", imageUrls);
-                    item.put("price", product.getPrice());
-                    item.put("stock", product.getStock());
-                    item.put("categoryId", product.getCategoryId());
-                    item.put("sellerId", product.getSellerId());
-                    item.put("latitude", product.getLatitude());
-                    item.put("longitude", product.getLongitude());
-                    item.put("status", product.getStatus());
-                    item.put("createdAt", product.getCreatedAt());
-                    item.put("distanceKm", entry.get("distanceKm"));
-                    
-                    return item;
-                })
-                .toList();
+        List<ProductGeoIndex.Hit> hits = productGeoIndex.withinRadius(lat, lng, radiusKm);
+        if (size == null) {
+            return ResponseEntity.ok(ApiResponse.success(toNearbyItems(hits)));
+        }
         
-        return ResponseEntity.ok(ApiResponse.success(result));
+        int pageSize = Math.min(Math.max(size, 1), 50);
+        int from = Math.min(Math.max(page, 0) * pageSize, hits.size());
+        int to = Math.min(from + pageSize, hits.size());
+        List<NearbyItem> content = toNearbyItems(hits.subList(from, to));
+        return ResponseEntity.ok(ApiResponse.success(PageResponse.of(content, page, pageSize, hits.size())));
+    }
+
+    /**
+     * 查询距离最近的k个商品（地图"最近N件"）
+     */
+    @GetMapping("/nearby/knn")
+    public ResponseEntity<ApiResponse<List<NearbyItem>>> nearest(@RequestParam("lat") double lat,
+                                                                 @RequestParam("lng") double lng,
+                                                                 @RequestParam(value = "k", defaultValue = "10") int k) {
+        log.debug("查询最近商品，纬度: {}, 经度: {}, k: {}", lat, lng, k);
+        if (k > 100) k = 100;
+        return ResponseEntity.ok(ApiResponse.success(toNearbyItems(productGeoIndex.nearest(lat, lng, k))));
+    }
+
+    /**
+     * 地图聚合点：按缩放级别网格聚合可视区域内的商品（数量 + 质心）
+     * 不传可视区域时统计全部商品
+     */
+    @GetMapping("/nearby/clusters")
+    public ResponseEntity<ApiResponse<List<ProductGeoIndex.Cluster>>> clusters(
+            @RequestParam("zoom") int zoom,
+            @RequestParam(value = "minLat", defaultValue = "-90") double minLat,
+            @RequestParam(value = "maxLat", defaultValue = "90") double maxLat,
+            @RequestParam(value = "minLng", defaultValue = "-180") double minLng,
+            @RequestParam(value = "maxLng", defaultValue = "180") double maxLng) {
+        log.debug("查询地图聚合点，缩放级别: {}, 区域: [{}, {}] - [{}, {}]", zoom, minLat, minLng, maxLat, maxLng);
+        if (minLat > maxLat || minLng > maxLng) {
+            throw new IllegalArgumentException("可视区域参数无效");
+        }
+        GeoUtils.BoundingBox viewport = new GeoUtils.BoundingBox(minLat, maxLat, minLng, maxLng);
+        return ResponseEntity.ok(ApiResponse.success(productGeoIndex.clusters(viewport, zoom)));
+    }
+
+    /**
+     * 返回已序列化的响应；If-None-Match 与ETag一致时返回304
+     * 设置 no-cache，要求客户端每次带ETag重新验证（否则Spring Security默认会加上 no-store）
+     */
+    private ResponseEntity<byte[]> rendered(String key, String ifNoneMatch, Supplier<Object> loader) {
+        RenderedResponseCache.Rendered rendered = renderedResponseCache.getOrRender(key, loader);
+        if (RenderedResponseCache.matches(ifNoneMatch, rendered.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(rendered.etag())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(rendered.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(rendered.body());
+    }
+
+    /**
+     * 信息流首页响应的区分维度：排序、每页数量、总数统计方式
+     */
+    private static String feedVariant(String sortBy, String sortOrder, int size, CountMode countMode) {
+        String sort = "price".equals(sortBy)
+                ? ("asc".equalsIgnoreCase(sortOrder) ? "price:asc" : "price:desc")
+                : "latest";
+        return sort + ":" + size + ":" + countMode;
+    }
+
+    /**
+     * 附近商品列表项：卡片批量取自缓存，按命中顺序附上距离
+     */
+    private List<NearbyItem> toNearbyItems(List<ProductGeoIndex.Hit> hits) {
+        List<ProductCard> cards = productCardService.toCards(hits.stream().map(ProductGeoIndex.Hit::product).toList());
+        Map<Long, ProductCard> byId = new HashMap<>();
+        for (ProductCard card : cards) {
+            byId.put(card.getId(), card);
+        }
+        List<NearbyItem> items = new ArrayList<>(hits.size());
+        for (ProductGeoIndex.Hit hit : hits) {
+            ProductCard card = byId.get(hit.product().getId());
+            if (card != null) {
+                items.add(new NearbyItem(card, hit.distanceKm()));
+            }
+        }
+        return items;
     }
 
     /**
@@ -2,18 +2,18 @@ package com.stylemirror.miniapp_backend.controller;
 
 import com.stylemirror.miniapp_backend.common.ApiResponse;
 import com.stylemirror.miniapp_backend.common.TestAuthHelper;
+import com.stylemirror.miniapp_backend.service.CacheMetrics;
+import com.stylemirror.miniapp_backend.service.CacheService;
 import com.stylemirror.miniapp_backend.service.TranslationService;
 import com.stylemirror.miniapp_backend.service.TTSService;
 import com.stylemirror.miniapp_backend.service.UserDailyQuotaService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
 
 /**
  * 翻译和 TTS 控制器
@@ -28,7 +28,8 @@ public class TranslationAndTTSController {
     private final TTSService ttsService;
     private final UserDailyQuotaService userDailyQuotaService;
     private final TestAuthHelper testAuthHelper;
-    private final RedisTemplate<String, String> redisTemplate;
+    private final CacheService cacheService;
+    private final CacheMetrics cacheMetrics;
 
     /**
      * 翻译评论（中文转英文）- 支持缓存
@@ -43,7 +44,7 @@ public class TranslationAndTTSController {
 
             // 先从缓存查询
             String cacheKey = "translation:comment:" + commentId;
-            String cachedTranslation = redisTemplate.opsForValue().get(cacheKey);
+            String cachedTranslation = cacheService.getServiceResult(cacheKey);
             if (cachedTranslation != null) {
                 return ApiResponse.success(cachedTranslation);
             }
@@ -63,14 +64,16 @@ public class TranslationAndTTSController {
             }
 
             // 调用翻译服务
+            long start = System.nanoTime();
             String translatedText = translationService.translateToEnglish(text);
+            cacheMetrics.recordLoad(cacheKey, System.nanoTime() - start);
             
             // 扣除配额
             userDailyQuotaService.useQuota(userId, charsNeeded);
             
             // 缓存翻译结果 - 7天过期
             if (translatedText != null && !translatedText.isEmpty()) {
-                redisTemplate.opsForValue().set(cacheKey, translatedText, 7, TimeUnit.DAYS);
+                cacheService.putServiceResult(cacheKey, translatedText);
             }
             
             return ApiResponse.success(translatedText);
@@ -96,7 +99,7 @@ public class TranslationAndTTSController {
 
             // 先从缓存查询
             String cacheKey = "tts:comment:" + commentId + ":" + voice;
-            String cachedAudio = redisTemplate.opsForValue().get(cacheKey);
+            String cachedAudio = cacheService.getServiceResult(cacheKey);
             if (cachedAudio != null) {
                 return ApiResponse.success(cachedAudio);
             }
@@ -116,14 +119,16 @@ public class TranslationAndTTSController {
             }
 
             // 调用TTS服务
+            long start = System.nanoTime();
             String audioUrl = ttsService.synthesizeVoice(text, voice, language);
+            cacheMetrics.recordLoad(cacheKey, System.nanoTime() - start);
             
             if (audioUrl != null && !audioUrl.isEmpty()) {
                 // 扣除配额
                 userDailyQuotaService.useQuota(userId, charsNeeded);
                 
                 // 缓存TTS结果 - 7天过期
-                redisTemplate.opsForValue().set(cacheKey, audioUrl, 7, TimeUnit.DAYS);
+                cacheService.putServiceResult(cacheKey, audioUrl);
                 
                 return ApiResponse.success(audioUrl);
             } else {
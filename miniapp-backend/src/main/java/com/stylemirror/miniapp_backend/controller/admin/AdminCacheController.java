@@ -0,0 +1,59 @@
+package com.stylemirror.miniapp_backend.controller.admin;
+
+import com.stylemirror.miniapp_backend.common.ApiResponse;
+import com.stylemirror.miniapp_backend.service.CacheService;
+import com.stylemirror.miniapp_backend.service.CacheWarmupService;
+import com.stylemirror.miniapp_backend.util.CircuitBreaker;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 缓存管理 Controller
+ */
+@RestController
+@RequestMapping("/api/admin/cache")
+@RequiredArgsConstructor
+@Slf4j
+public class AdminCacheController {
+
+    private final CacheWarmupService cacheWarmupService;
+    private final CacheService cacheService;
+    private final CircuitBreaker redisCircuitBreaker;
+
+    /**
+     * 查询最近一次缓存预热的进度
+     */
+    @GetMapping("/warmup")
+    public ResponseEntity<ApiResponse<CacheWarmupService.Progress>> warmupProgress() {
+        return ResponseEntity.ok(ApiResponse.success(cacheWarmupService.progress()));
+    }
+
+    /**
+     * 手动执行缓存预热
+     */
+    @PostMapping("/warmup")
+    public ResponseEntity<ApiResponse<CacheWarmupService.Progress>> warmUp() {
+        log.info("手动执行缓存预热");
+        return ResponseEntity.ok(ApiResponse.success(cacheWarmupService.warmUp()));
+    }
+
+    /**
+     * 查询Redis熔断器状态
+     */
+    @GetMapping("/redis-breaker")
+    public ResponseEntity<ApiResponse<CircuitBreaker.Snapshot>> redisBreaker() {
+        return ResponseEntity.ok(ApiResponse.success(redisCircuitBreaker.snapshot()));
+    }
+
+    /**
+     * 查询本节点当前的热点Key
+     */
+    @GetMapping("/hot-keys")
+    public ResponseEntity<ApiResponse<List<CacheService.HotKey>>> hotKeys() {
+        return ResponseEntity.ok(ApiResponse.success(cacheService.hotKeys()));
+    }
+}
@@ -1,6 +1,7 @@
 package com.stylemirror.miniapp_backend.controller.admin;
 
 import com.stylemirror.miniapp_backend.common.ApiResponse;
+import com.stylemirror.miniapp_backend.common.CountMode;
 import com.stylemirror.miniapp_backend.common.PageResponse;
 import com.stylemirror.miniapp_backend.domain.Category;
 import com.stylemirror.miniapp_backend.service.CategoryService;
@@ -43,7 +44,8 @@ public class AdminCategoryController {
     public ResponseEntity<ApiResponse<PageResponse<Category>>> list(
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "20") int size,
-            @RequestParam(value = "keyword", required = false) String keyword) {
+            @RequestParam(value = "keyword", required = false) String keyword,
+            @RequestParam(value = "countMode", defaultValue = "EXACT") CountMode countMode) {
         
         // 限制每页最大数量
         if (size > 100) {
@@ -52,7 +54,7 @@ public class AdminCategoryController {
         
         log.debug("查询分类列表，页码: {}, 每页: {}, 关键词: {}", page, size, keyword);
         
-        PageResponse<Category> pageResponse = categoryService.findPage(page, size, keyword);
+        PageResponse<Category> pageResponse = categoryService.findPage(page, size, keyword, countMode);
         return ResponseEntity.ok(ApiResponse.success(pageResponse));
     }
 
@@ -0,0 +1,40 @@
+package com.stylemirror.miniapp_backend.controller.admin;
+
+import com.stylemirror.miniapp_backend.common.ApiResponse;
+import com.stylemirror.miniapp_backend.service.ModerationService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 内容审核管理 Controller（批量导入、评论回填、聊天记录导出等场景）
+ */
+@RestController
+@RequestMapping("/api/admin/moderation")
+@RequiredArgsConstructor
+@Validated
+@Slf4j
+public class AdminModerationController {
+
+    private final ModerationService moderationService;
+
+    public record BatchRequest(@NotEmpty List<String> texts) {}
+
+    /**
+     * 批量审核文本，返回每条文本命中的敏感词、分类和屏蔽后的文本（顺序与请求一致）
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<List<ModerationService.Verdict>>> moderateBatch(@Valid @RequestBody BatchRequest req) {
+        long start = System.currentTimeMillis();
+        List<ModerationService.Verdict> verdicts = moderationService.moderateBatch(req.texts());
+        log.info("批量审核完成: 条数={}, 命中={}, 耗时={}ms", verdicts.size(),
+                verdicts.stream().filter(verdict -> !verdict.clean()).count(), System.currentTimeMillis() - start);
+        return ResponseEntity.ok(ApiResponse.success(verdicts));
+    }
+}
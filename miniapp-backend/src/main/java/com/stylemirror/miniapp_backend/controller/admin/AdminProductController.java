@@ -1,6 +1,7 @@
 package com.stylemirror.miniapp_backend.controller.admin;
 
 import com.stylemirror.miniapp_backend.common.ApiResponse;
+import com.stylemirror.miniapp_backend.common.CountMode;
 import com.stylemirror.miniapp_backend.common.PageResponse;
 import com.stylemirror.miniapp_backend.domain.Product;
 import com.stylemirror.miniapp_backend.service.ProductService;
@@ -39,6 +40,7 @@ public class AdminProductController {
      * @param keyword 搜索关键词（商品名称、描述）
      * @param status 状态筛选（PUBLISHED、PENDING、REJECTED、OFFLINE）
      * @param categoryId 分类ID筛选
+     * @param countMode 总数统计方式（EXACT、CACHED、NONE、APPROXIMATE）
      * @return 分页商品列表
      */
     @GetMapping
@@ -47,7 +49,8 @@ public class AdminProductController {
             @RequestParam(value = "size", defaultValue = "20") int size,
             @RequestParam(value = "keyword", required = false) String keyword,
             @RequestParam(value = "status", required = false) String status,
-            @RequestParam(value = "categoryId", required = false) Long categoryId) {
+            @RequestParam(value = "categoryId", required = false) Long categoryId,
+            @RequestParam(value = "countMode", defaultValue = "EXACT") CountMode countMode) {
         
         // 限制每页最大数量
         if (size > 100) {
@@ -57,7 +60,7 @@ public class AdminProductController {
         log.debug("查询商品列表，页码: {}, 每页: {}, 关键词: {}, 状态: {}, 分类ID: {}", 
                 page, size, keyword, status, categoryId);
         
-        PageResponse<Product> pageResponse = productService.findPageForAdmin(page, size, keyword, status, categoryId);
+        PageResponse<Product> pageResponse = productService.findPageForAdmin(page, size, keyword, status, categoryId, countMode);
         return ResponseEntity.ok(ApiResponse.success(pageResponse));
     }
 
@@ -0,0 +1,37 @@
+package com.stylemirror.miniapp_backend.controller.admin;
+
+import com.stylemirror.miniapp_backend.common.ApiResponse;
+import com.stylemirror.miniapp_backend.service.ProductSearchIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 商品搜索索引管理 Controller
+ */
+@RestController
+@RequestMapping("/api/admin/search-index")
+@RequiredArgsConstructor
+@Slf4j
+public class AdminSearchIndexController {
+
+    private final ProductSearchIndex productSearchIndex;
+
+    /**
+     * 查询索引规模和查询耗时统计
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<ApiResponse<ProductSearchIndex.Stats>> stats() {
+        return ResponseEntity.ok(ApiResponse.success(productSearchIndex.stats()));
+    }
+
+    /**
+     * 全量重建索引
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<ApiResponse<ProductSearchIndex.Stats>> rebuild() {
+        log.info("手动重建商品搜索索引");
+        return ResponseEntity.ok(ApiResponse.success(productSearchIndex.rebuild()));
+    }
+}
@@ -1,6 +1,7 @@
 package com.stylemirror.miniapp_backend.controller.admin;
 
 import com.stylemirror.miniapp_backend.common.ApiResponse;
+import com.stylemirror.miniapp_backend.common.CountMode;
 import com.stylemirror.miniapp_backend.common.PageResponse;
 import com.stylemirror.miniapp_backend.domain.User;
 import com.stylemirror.miniapp_backend.service.UserService;
@@ -36,7 +37,8 @@ public class AdminUserController {
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "20") int size,
             @RequestParam(value = "keyword", required = false) String keyword,
-            @RequestParam(value = "banned", required = false) Boolean banned) {
+            @RequestParam(value = "banned", required = false) Boolean banned,
+            @RequestParam(value = "countMode", defaultValue = "EXACT") CountMode countMode) {
         
         // 限制每页最大数量
         if (size > 100) {
@@ -46,7 +48,7 @@ public class AdminUserController {
         log.debug("查询用户列表，页码: {}, 每页: {}, 关键词: {}, 封禁状态: {}", 
                 page, size, keyword, banned);
         
-        PageResponse<User> pageResponse = userService.findPage(page, size, keyword, banned);
+        PageResponse<User> pageResponse = userService.findPage(page, size, keyword, banned, countMode);
         return ResponseEntity.ok(ApiResponse.success(pageResponse));
     }
 
@@ -0,0 +1,69 @@
+package com.stylemirror.miniapp_backend.dto;
+
+import com.stylemirror.miniapp_backend.domain.Category;
+import com.stylemirror.miniapp_backend.domain.Product;
+import com.stylemirror.miniapp_backend.domain.User;
+import com.stylemirror.miniapp_backend.util.ImageUrls;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 商品卡片投影
+ * 图片URL已解析，内嵌卖家昵称头像和分类名称，缓存后列表和详情接口直接返回
+ */
+@Data
+public class ProductCard {
+
+    private Long id;
+    private String name;
+    private String description;
+    /**
+     * 第一张图片（列表展示用）
+     */
+    private String coverUrl;
+    private List<String> imageUrls;
+    private BigDecimal price;
+    private Integer stock;
+    private Long categoryId;
+    private String categoryName;
+    private Long sellerId;
+    private SellerInfo seller;
+    private Double latitude;
+    private Double longitude;
+    private String status;
+    private Instant createdAt;
+
+    /**
+     * 卖家信息
+     */
+    public record SellerInfo(Long id, String nickname, String avatarUrl) {}
+
+    /**
+     * 由商品、卖家、分类组装卡片（卖家和分类可为空）
+     */
+    public static ProductCard of(Product product, User seller, Category category) {
+        ProductCard card = new ProductCard();
+        card.setId(product.getId());
+        card.setName(product.getName());
+        card.setDescription(product.getDescription());
+        List<String> imageUrls = ImageUrls.decode(product.getCoverUrl());
+        card.setCoverUrl(imageUrls.isEmpty() ? null : imageUrls.get(0));
+        card.setImageUrls(imageUrls);
+        card.setPrice(product.getPrice());
+        card.setStock(product.getStock());
+        card.setCategoryId(product.getCategoryId());
+        card.setCategoryName(category != null ? category.getName() : null);
+        card.setSellerId(product.getSellerId());
+        if (seller != null) {
+            card.setSeller(new SellerInfo(seller.getId(), seller.getNickname(), seller.getAvatarUrl()));
+        }
+        card.setLatitude(product.getLatitude());
+        card.setLongitude(product.getLongitude());
+        card.setStatus(product.getStatus());
+        card.setCreatedAt(product.getCreatedAt());
+        return card;
+    }
+}
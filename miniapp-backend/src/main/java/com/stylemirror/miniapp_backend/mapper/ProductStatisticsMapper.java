@@ -45,4 +45,17 @@ public interface ProductStatisticsMapper extends BaseMapper<ProductStatistics> {
         @Result(property = "updatedAt", column = "updated_at")
     })
     List<ProductStatistics> getTopProductsByDateRange(String startDate, String endDate, int limit);
+
+    /**
+     * 获取指定日期以来浏览量最高的商品ID（缓存预热使用）
+     */
+    @Select("""
+        SELECT product_id
+        FROM product_statistics
+        WHERE statistic_date >= #{startDate}
+        GROUP BY product_id
+        ORDER BY SUM(views) DESC
+        LIMIT #{limit}
+        """)
+    List<Long> getTopViewedProductIds(String startDate, int limit);
 }
@@ -14,8 +14,8 @@ import java.util.List;
 public interface BannedWordMapper extends BaseMapper<BannedWord> {
     
     /**
-     * 获取所有启用的违禁词
+     * 获取所有启用的违禁词及其分类（按ID排序，各节点构建的词典一致）
      */
-    @Select("SELECT word FROM banned_words WHERE is_active = 1")
-    List<String> selectActiveBannedWords();
+    @Select("SELECT word, category FROM banned_words WHERE is_active = 1 ORDER BY id")
+    List<BannedWord> selectActiveWordsWithCategory();
 }
@@ -0,0 +1,168 @@
+package com.stylemirror.miniapp_backend.service;
+
+import com.stylemirror.miniapp_backend.config.CompactRedisSerializer;
+import com.stylemirror.miniapp_backend.config.RedisCircuitOpenException;
+import com.stylemirror.miniapp_backend.util.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存指标（Micrometer，经 /actuator/prometheus 暴露），按Key命名空间统计：
+ * - cache.requests：命中/未命中次数（result=hit|miss，level=local|redis）
+ * - cache.errors：Redis访问失败次数（reason=circuit_open|error）
+ * - cache.load：回源加载耗时
+ * - cache.serialization、cache.payload：值序列化/反序列化耗时和字节数
+ * - cache.ttl.decisions、cache.ttl：过期时间策略的决策次数（decision=extend|shorten|base）和最终过期时间
+ * - cache.redis.breaker.*：Redis熔断器状态
+ * 命名空间是固定的前缀列表，其他Key归入 other，避免标签基数失控
+ */
+@Service
+public class CacheMetrics implements CompactRedisSerializer.Listener {
+    public static final String LOCAL = "local";
+    public static final String REDIS = "redis";
+
+    // 按前缀长度从长到短匹配
+    private static final List<String> NAMESPACES = List.of(
+            "user:openid:", "user:quota:", "product:card:", "translation:", "moderation:", "category:", "product:",
+            "wenxin:", "share:", "count:", "feed:", "user:", "tts:");
+    private static final String OTHER = "other";
+
+    // 当前线程正在读写的Key所属命名空间，序列化回调据此归类
+    private static final ThreadLocal<String> CURRENT_NAMESPACE = new ThreadLocal<>();
+
+    private final MeterRegistry registry;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    public CacheMetrics(MeterRegistry registry, CircuitBreaker redisCircuitBreaker) {
+        this.registry = registry;
+        Gauge.builder("cache.redis.breaker.state", redisCircuitBreaker, breaker -> breaker.state().ordinal())
+                .description("Redis熔断器状态：0=CLOSED，1=OPEN，2=HALF_OPEN")
+                .register(registry);
+        FunctionCounter.builder("cache.redis.breaker.rejected", redisCircuitBreaker,
+                        breaker -> breaker.snapshot().rejected())
+                .description("熔断期间被拒绝的Redis命令数")
+                .register(registry);
+        FunctionCounter.builder("cache.redis.breaker.opened", redisCircuitBreaker,
+                        breaker -> breaker.snapshot().opened())
+                .description("熔断器打开次数")
+                .register(registry);
+    }
+
+    /**
+     * 读写范围，关闭时恢复之前的命名空间
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    public MeterRegistry registry() {
+        return registry;
+    }
+
+    /**
+     * Key所属的命名空间
+     */
+    public static String namespace(String key) {
+        if (key != null) {
+            for (String namespace : NAMESPACES) {
+                if (key.startsWith(namespace)) {
+                    return namespace;
+                }
+            }
+        }
+        return OTHER;
+    }
+
+    /**
+     * 标记当前线程接下来的Redis读写属于哪个Key（用于序列化指标归类）
+     */
+    public Scope scope(String key) {
+        String previous = CURRENT_NAMESPACE.get();
+        CURRENT_NAMESPACE.set(namespace(key));
+        return () -> {
+            if (previous == null) {
+                CURRENT_NAMESPACE.remove();
+            } else {
+                CURRENT_NAMESPACE.set(previous);
+            }
+        };
+    }
+
+    public void hit(String key, String level) {
+        counter("cache.requests", namespace(key), "result", "hit", "level", level).increment();
+    }
+
+    public void miss(String key) {
+        counter("cache.requests", namespace(key), "result", "miss", "level", REDIS).increment();
+    }
+
+    public void error(String key, Throwable e) {
+        String reason = e instanceof RedisCircuitOpenException ? "circuit_open" : "error";
+        counter("cache.errors", namespace(key), "reason", reason).increment();
+    }
+
+    /**
+     * 记录一次回源加载耗时
+     */
+    public void recordLoad(String key, long nanos) {
+        String namespace = namespace(key);
+        timers.computeIfAbsent("cache.load|" + namespace, k -> Timer.builder("cache.load")
+                        .description("缓存未命中时回源加载的耗时")
+                        .tag("namespace", namespace)
+                        .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录一次过期时间决策
+     */
+    public void ttlDecision(String key, String decision, long seconds) {
+        String namespace = namespace(key);
+        counter("cache.ttl.decisions", namespace, "decision", decision).increment();
+        summaries.computeIfAbsent("cache.ttl|" + namespace, k -> DistributionSummary.builder("cache.ttl")
+                        .description("写入缓存时使用的过期时间")
+                        .baseUnit("seconds")
+                        .tag("namespace", namespace)
+                        .register(registry))
+                .record(seconds);
+    }
+
+    @Override
+    public void onSerialization(String operation, long nanos, int bytes) {
+        String namespace = CURRENT_NAMESPACE.get();
+        String ns = namespace != null ? namespace : OTHER;
+        String id = ns + "|" + operation;
+        timers.computeIfAbsent("cache.serialization|" + id, k -> Timer.builder("cache.serialization")
+                        .description("缓存值序列化/反序列化耗时")
+                        .tags("namespace", ns, "operation", operation)
+                        .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+        summaries.computeIfAbsent(id, k -> DistributionSummary.builder("cache.payload")
+                        .description("缓存值字节数")
+                        .baseUnit("bytes")
+                        .tags("namespace", ns, "operation", operation)
+                        .register(registry))
+                .record(bytes);
+    }
+
+    private Counter counter(String name, String namespace, String... tags) {
+        String id = name + "|" + namespace + "|" + String.join("|", tags);
+        return counters.computeIfAbsent(id, k -> Counter.builder(name)
+                .tag("namespace", namespace)
+                .tags(tags)
+                .register(registry));
+    }
+}
@@ -1,38 +1,201 @@
 package com.stylemirror.miniapp_backend.service;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.stylemirror.miniapp_backend.config.RedisCircuitOpenException;
+import com.stylemirror.miniapp_backend.util.CountMinSketch;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 
 /**
  * 缓存服务类
  * 提供通用的缓存操作方法
+ *
+ * 商品（product:）和用户（user:、user:openid:）命名空间使用两级缓存：
+ * 进程内一级缓存（Caffeine，W-TinyLFU淘汰，容量和存活时间有限）在前，Redis二级缓存在后。
+ * set/delete 时通过Redis发布订阅广播失效消息，其他节点收到后删除各自的一级缓存副本
+ *
+ * 读取时用Count-Min Sketch统计Key的近期访问频率，超过阈值的Key标记为热点：
+ * 其他命名空间（信息流、分类、计数等）的热点Key也进入一级缓存，但只保留很短时间（默认2秒），
+ * 促销期间单个Key的突发读取不再受限于Redis往返
+ *
+ * 回源回填和不指定过期时间的 set 由 CacheTtlPolicy 按Key热度和命名空间读写比调整过期时间
  */
 @Service
 @Slf4j
-public class CacheService {
+public class CacheService implements MessageListener {
     private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisTemplate<String, String> stringRedisTemplate;
     private final ObjectMapper objectMapper;
+    private final CacheMetrics cacheMetrics;
+    private final CacheTtlPolicy ttlPolicy;
+    private final Cache<String, Object> localCache;
+    private final Cache<String, Integer> hotKeys;
+    private final int hotKeyThreshold;
+    private final long hotKeyDecayNanos;
 
+    /**
+     * @param hotKeyThreshold 衰减周期内的访问次数（估计值）达到该值即为热点Key
+     * @param hotKeyDecay 访问计数减半的周期
+     * @param hotKeyHold 热点Key在不再达到阈值后仍保持热点状态的时间
+     * @param hotKeyCopyTtl 非商品、用户命名空间的热点Key在一级缓存中的存活时间
+     */
     public CacheService(
             RedisTemplate<String, Object> redisTemplate,
-            @Qualifier("redisObjectMapper") ObjectMapper objectMapper) {
+            RedisTemplate<String, String> stringRedisTemplate,
+            @Qualifier("redisObjectMapper") ObjectMapper objectMapper,
+            RedisMessageListenerContainer listenerContainer,
+            CacheMetrics cacheMetrics,
+            CacheTtlPolicy ttlPolicy,
+            @Value("${cache.hot-key.threshold:200}") int hotKeyThreshold,
+            @Value("${cache.hot-key.decay:PT1S}") Duration hotKeyDecay,
+            @Value("${cache.hot-key.hold:PT30S}") Duration hotKeyHold,
+            @Value("${cache.hot-key.copy-ttl:PT2S}") Duration hotKeyCopyTtl) {
         this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
         this.objectMapper = objectMapper;
+        this.cacheMetrics = cacheMetrics;
+        this.ttlPolicy = ttlPolicy;
+        this.hotKeyThreshold = hotKeyThreshold;
+        this.hotKeyDecayNanos = hotKeyDecay.toNanos();
+        this.hotKeys = Caffeine.newBuilder()
+                .maximumSize(HOT_KEY_MAX_SIZE)
+                .expireAfterWrite(hotKeyHold)
+                .build();
+        long localNanos = TimeUnit.SECONDS.toNanos(LOCAL_EXPIRE_TIME);
+        long hotCopyNanos = hotKeyCopyTtl.toNanos();
+        // 商品、用户实体Key存活LOCAL_EXPIRE_TIME，其他热点Key副本只存活hotKeyCopyTtl
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(LOCAL_MAX_SIZE)
+                .expireAfter(new Expiry<String, Object>() {
+                    @Override
+                    public long expireAfterCreate(String key, Object value, long currentTime) {
+                        return isLocalNamespace(key) ? localNanos : hotCopyNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Object value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Object value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(cacheMetrics.registry(), localCache, "local");
+        Gauge.builder("cache.hot.keys", hotKeys, Cache::estimatedSize)
+                .description("本节点当前的热点Key数")
+                .register(cacheMetrics.registry());
+        listenerContainer.addMessageListener(this, new ChannelTopic(LOCAL_INVALIDATE_CHANNEL));
     }
 
     // 缓存前缀
     private static final String USER_PREFIX = "user:";
     private static final String PRODUCT_PREFIX = "product:";
+    private static final String PRODUCT_CARD_PREFIX = "product:card:";
     private static final String USER_OPENID_PREFIX = "user:openid:";
+    private static final String CATEGORY_PREFIX = "category:";
+    private static final String FEED_PREFIX = "feed:";
+    // 标签索引前缀：tag:{标签} 是打了该标签的缓存Key集合，按标签失效时只删除集合内的Key
+    private static final String TAG_PREFIX = "tag:";
+    private static final String COUNT_PREFIX = "count:";
+    private static final String SHARE_LINK_PREFIX = "share:";
+    // 不存在标记（墓碑）前缀，回源结果为空时写入，避免同一个不存在的Key反复查库
+    private static final String MISSING_PREFIX = "missing:";
 
     // 默认过期时间（秒）
     private static final long DEFAULT_EXPIRE_TIME = 3600; // 1小时
+    // 信息流分页过期时间（秒），兜底失效期间并发回源写入的旧数据
+    private static final long FEED_EXPIRE_TIME = 60;
+    // SCAN每批返回数量提示，以及每次UNLINK、每条失效广播的Key数量
+    private static final int SCAN_BATCH_SIZE = 500;
+    // 外部服务（翻译、TTS）结果过期时间（秒）
+    private static final long SERVICE_RESULT_EXPIRE_TIME = TimeUnit.DAYS.toSeconds(7);
+    // 不存在标记过期时间（秒），兜底新建实体时未能清除的标记
+    private static final long MISSING_EXPIRE_TIME = 60;
+
+    // 一级缓存容量和存活时间（秒），存活时间兜底丢失的失效广播
+    private static final long LOCAL_MAX_SIZE = 10_000;
+    private static final long LOCAL_EXPIRE_TIME = 60;
+    // 一级缓存失效广播频道，消息格式：节点ID|K:key1\nkey2... 或 节点ID|P:pattern
+    private static final String LOCAL_INVALIDATE_CHANNEL = "cache:local:invalidate";
+
+    // 一级缓存中的不存在标记
+    private static final Object MISSING = new Object();
+
+    // 本节点ID，忽略自己发出的失效广播
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // 热点Key统计：4行 x 16384列计数器（256KB），最多同时保持的热点Key数
+    private static final int HOT_KEY_SKETCH_DEPTH = 4;
+    private static final int HOT_KEY_SKETCH_WIDTH = 1 << 14;
+    private static final long HOT_KEY_MAX_SIZE = 1000;
+    private final CountMinSketch accessSketch = new CountMinSketch(HOT_KEY_SKETCH_DEPTH, HOT_KEY_SKETCH_WIDTH);
+    private final AtomicLong lastDecay = new AtomicLong(System.nanoTime());
+
+    // 回源锁前缀，同一个Key在所有节点间只允许一个请求查库
+    private static final String LOCK_PREFIX = "lock:";
+    // 回源锁超时（毫秒），持锁节点宕机时最多阻塞这么久
+    private static final long LOAD_LOCK_MILLIS = 3000;
+    // 未抢到回源锁时等待其他节点写入缓存的轮询间隔和次数
+    private static final long LOAD_WAIT_MILLIS = 50;
+    private static final int LOAD_WAIT_TIMES = 10;
+    // 过期后仍可返回旧值的时间窗口（秒）：Key实际多存活这么久，期间只有抢到锁的请求回源刷新
+    private static final long STALE_WINDOW = 60;
+    // 比较并删除锁，避免误删其他请求续上的锁
+    private static final String UNLOCK_SCRIPT =
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end";
+
+    // 正在回源的Key，同一个Key在本节点只允许一个线程查库
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
 
     /**
      * 用户缓存Key
@@ -56,21 +219,150 @@ public class CacheService {
     }
 
     /**
-     * 设置缓存
+     * 商品卡片缓存Key
+     */
+    public String getProductCardKey(Long productId) {
+        return PRODUCT_CARD_PREFIX + productId;
+    }
+
+    /**
+     * 分类缓存Key
+     */
+    public String getCategoryKey(Long categoryId) {
+        return CATEGORY_PREFIX + categoryId;
+    }
+
+    /**
+     * 分享链接缓存Key
+     */
+    public String getShareLinkKey(String code) {
+        return SHARE_LINK_PREFIX + code;
+    }
+
+    /**
+     * 分类标签：引用了分类信息的缓存（如商品卡片中的分类名称）
+     */
+    public String getCategoryTag(Long categoryId) {
+        return "category:" + categoryId;
+    }
+
+    /**
+     * 卖家标签：引用了卖家信息的缓存（如商品卡片中的卖家昵称、头像）
+     */
+    public String getSellerTag(Long sellerId) {
+        return "seller:" + sellerId;
+    }
+
+    /**
+     * 信息流范围：全部商品或某个分类
+     */
+    private String getFeedScope(Long categoryId) {
+        return categoryId == null ? "all" : "cat:" + categoryId;
+    }
+
+    /**
+     * 信息流分页缓存Key
+     * @param categoryId 分类ID（null表示全部商品）
+     * @param sort 归一化后的排序方式，如 latest、price:asc
+     */
+    public String getFeedPageKey(Long categoryId, String sort, int page, int size) {
+        return FEED_PREFIX + getFeedScope(categoryId) + ":" + sort + ":" + page + ":" + size;
+    }
+
+    /**
+     * 分页总数缓存Key
+     * @param table 表名
+     * @param signature 查询条件签名
+     */
+    public String getCountKey(String table, String signature) {
+        return COUNT_PREFIX + table + ":" + signature;
+    }
+
+    /**
+     * 设置缓存，过期时间由 CacheTtlPolicy 在默认过期时间基础上调整
      */
     public void set(String key, Object value) {
-        set(key, value, DEFAULT_EXPIRE_TIME);
+        ttlPolicy.recordWrite(key);
+        put(key, value, ttlPolicy.ttl(key, DEFAULT_EXPIRE_TIME));
+        broadcastLocal(key);
     }
 
     /**
-     * 设置缓存（带过期时间）
+     * 设置缓存（带过期时间，按指定时间过期，不做调整）
      */
     public void set(String key, Object value, long expireSeconds) {
-        try {
+        ttlPolicy.recordWrite(key);
+        put(key, value, expireSeconds);
+        broadcastLocal(key);
+    }
+
+    /**
+     * 回填缓存（数据库当前值，不是数据变更），过期时间由 CacheTtlPolicy 在默认过期时间基础上调整
+     * 与 set 不同，不计入命名空间写入次数，也不广播一级缓存失效
+     */
+    public void backfill(String key, Object value) {
+        put(key, value, ttlPolicy.ttl(key, DEFAULT_EXPIRE_TIME));
+    }
+
+    /**
+     * 回填缓存（按指定时间过期，不做调整），不计入写入次数，也不广播一级缓存失效
+     */
+    public void backfill(String key, Object value, long expireSeconds) {
+        put(key, value, expireSeconds);
+    }
+
+    /**
+     * 写入Redis和本节点一级缓存，不计入写入次数，也不广播失效（回源回填走这里，
+     * 回填的是数据库当前值，其他节点的一级缓存副本仍然有效）
+     */
+    private void put(String key, Object value, long expireSeconds) {
+        try (CacheMetrics.Scope ignored = cacheMetrics.scope(key)) {
             redisTemplate.opsForValue().set(key, value, expireSeconds, TimeUnit.SECONDS);
             log.debug("设置缓存: key={}, expire={}秒", key, expireSeconds);
         } catch (Exception e) {
-            log.error("设置缓存失败: key={}", key, e);
+            logRedisError("设置缓存失败: key={}", key, e);
+        }
+        if (isLocalCacheable(key)) {
+            localCache.put(key, copyOf(value));
+        }
+    }
+
+    /**
+     * 数据变更后通知其他节点删除一级缓存副本
+     */
+    private void broadcastLocal(String key) {
+        if (isLocalCacheable(key)) {
+            publishInvalidation("K:" + key);
+        }
+    }
+
+    /**
+     * 读取外部服务（翻译、TTS）的结果缓存，纯字符串存储，不经过缓存值编码
+     * Redis不可用（含熔断）时视为未命中，调用方直接调用服务
+     */
+    public String getServiceResult(String key) {
+        try {
+            String cached = stringRedisTemplate.opsForValue().get(key);
+            if (cached != null) {
+                cacheMetrics.hit(key, CacheMetrics.REDIS);
+            } else {
+                cacheMetrics.miss(key);
+            }
+            return cached;
+        } catch (Exception e) {
+            logRedisError("读取外部服务结果缓存失败: key={}", key, e);
+            return null;
+        }
+    }
+
+    /**
+     * 缓存外部服务（翻译、TTS）的结果（7天过期），Redis不可用时跳过
+     */
+    public void putServiceResult(String key, String value) {
+        try {
+            stringRedisTemplate.opsForValue().set(key, value, SERVICE_RESULT_EXPIRE_TIME, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            logRedisError("写入外部服务结果缓存失败: key={}", key, e);
         }
     }
 
@@ -78,38 +370,647 @@ public class CacheService {
      * 获取缓存
      */
     public <T> T get(String key, Class<T> clazz) {
-        try {
+        recordAccess(key);
+        boolean localCacheable = isLocalCacheable(key);
+        if (localCacheable) {
+            Object local = localCache.getIfPresent(key);
+            if (clazz.isInstance(local)) {
+                log.debug("一级缓存命中: key={}", key);
+                cacheMetrics.hit(key, CacheMetrics.LOCAL);
+                return clazz.cast(copyOf(local));
+            }
+        }
+        try (CacheMetrics.Scope ignored = cacheMetrics.scope(key)) {
             Object value = redisTemplate.opsForValue().get(key);
             if (value != null) {
                 log.debug("缓存命中: key={}", key);
+                cacheMetrics.hit(key, CacheMetrics.REDIS);
+                T result;
                 // 如果已经是目标类型，直接返回
                 if (clazz.isInstance(value)) {
-                    return clazz.cast(value);
+                    result = clazz.cast(value);
+                } else if (value instanceof LinkedHashMap) {
+                    // 如果是 LinkedHashMap（JSON 反序列化的结果），需要转换为目标类型
+                    result = objectMapper.convertValue(value, clazz);
+                } else {
+                    // 其他情况尝试直接转换
+                    result = clazz.cast(value);
                 }
-                // 如果是 LinkedHashMap（JSON 反序列化的结果），需要转换为目标类型
-                if (value instanceof LinkedHashMap) {
-                    return objectMapper.convertValue(value, clazz);
+                if (localCacheable) {
+                    localCache.put(key, copyOf(result));
+                }
+                return result;
+            }
+            log.debug("缓存未命中: key={}", key);
+            cacheMetrics.miss(key);
+            return null;
+        } catch (Exception e) {
+            logRedisError("获取缓存失败: key={}", key, e);
+            return null;
+        }
+    }
+
+    /**
+     * 获取缓存（泛型类型，如商品分页结果）
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, TypeReference<T> type) {
+        recordAccess(key);
+        boolean localCacheable = isLocalCacheable(key);
+        if (localCacheable) {
+            // 一级缓存保存Redis读出的原始值，每次转换出新对象
+            Object local = localCache.getIfPresent(key);
+            if (local != null && local != MISSING) {
+                log.debug("一级缓存命中: key={}", key);
+                cacheMetrics.hit(key, CacheMetrics.LOCAL);
+                T result = objectMapper.convertValue(local, type);
+                return result == local ? (T) copyOf(local) : result;
+            }
+        }
+        try (CacheMetrics.Scope ignored = cacheMetrics.scope(key)) {
+            Object value = redisTemplate.opsForValue().get(key);
+            if (value != null) {
+                log.debug("缓存命中: key={}", key);
+                cacheMetrics.hit(key, CacheMetrics.REDIS);
+                if (localCacheable) {
+                    localCache.put(key, value);
                 }
-                // 其他情况尝试直接转换
-                return clazz.cast(value);
+                return objectMapper.convertValue(value, type);
             }
             log.debug("缓存未命中: key={}", key);
+            cacheMetrics.miss(key);
             return null;
         } catch (Exception e) {
-            log.error("获取缓存失败: key={}", key, e);
+            logRedisError("获取缓存失败: key={}", key, e);
             return null;
         }
     }
 
+    /**
+     * 批量获取缓存（一次MGET）
+     * @return Key -> 缓存值，只包含命中的Key
+     */
+    public <T> Map<String, T> multiGet(List<String> keys, Class<T> clazz) {
+        Map<String, T> result = new HashMap<>();
+        // 先查一级缓存，剩余的Key再一次MGET
+        List<String> remoteKeys = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            recordAccess(key);
+            Object local = isLocalCacheable(key) ? localCache.getIfPresent(key) : null;
+            if (clazz.isInstance(local)) {
+                cacheMetrics.hit(key, CacheMetrics.LOCAL);
+                result.put(key, clazz.cast(copyOf(local)));
+            } else {
+                remoteKeys.add(key);
+            }
+        }
+        if (remoteKeys.isEmpty()) {
+            return result;
+        }
+        try (CacheMetrics.Scope ignored = cacheMetrics.scope(remoteKeys.get(0))) {
+            List<Object> values = redisTemplate.opsForValue().multiGet(remoteKeys);
+            if (values == null) {
+                return result;
+            }
+            for (int i = 0; i < remoteKeys.size(); i++) {
+                Object value = values.get(i);
+                String key = remoteKeys.get(i);
+                if (value == null) {
+                    cacheMetrics.miss(key);
+                } else {
+                    cacheMetrics.hit(key, CacheMetrics.REDIS);
+                    T converted = clazz.isInstance(value) ? clazz.cast(value) : objectMapper.convertValue(value, clazz);
+                    result.put(key, converted);
+                    if (isLocalCacheable(key)) {
+                        localCache.put(key, copyOf(converted));
+                    }
+                }
+            }
+            log.debug("批量获取缓存: keys={}, hits={}", keys.size(), result.size());
+        } catch (Exception e) {
+            logRedisError("批量获取缓存失败: keys={}", keys.size(), e);
+        }
+        return result;
+    }
+
+    /**
+     * 批量设置缓存（带过期时间）
+     * MSET不支持过期时间，这里用管道批量发送 SET EX，同样只有一次网络往返
+     */
+    public void multiSet(Map<String, ?> values, long expireSeconds) {
+        multiSet(values, key -> expireSeconds);
+    }
+
+    /**
+     * 批量设置缓存，每个Key单独指定过期时间
+     */
+    public void multiSet(Map<String, ?> values, Function<String, Long> expireFunction) {
+        if (values.isEmpty()) {
+            return;
+        }
+        try (CacheMetrics.Scope ignored = cacheMetrics.scope(values.keySet().iterator().next())) {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    values.forEach((key, value) -> ops.opsForValue().set(key, value, expireFunction.apply(key), TimeUnit.SECONDS));
+                    return null;
+                }
+            });
+            log.debug("批量设置缓存: keys={}", values.size());
+        } catch (Exception e) {
+            logRedisError("批量设置缓存失败: keys={}", values.size(), e);
+        }
+        // 批量设置只用于回填未命中的数据，不需要广播失效
+        values.forEach((key, value) -> {
+            if (isLocalCacheable(key)) {
+                localCache.put(key, copyOf(value));
+            }
+        });
+    }
+
+    /**
+     * 按ID批量获取缓存，未命中的ID一次性回源加载并回写
+     * @param keyFunction ID -> 缓存Key
+     * @param loader 按未命中ID批量查库（如 selectBatchIds）
+     * @param idFunction 从实体取ID
+     * @return ID -> 实体（按传入ID顺序，不存在的ID不包含在内）
+     */
+    public <T> Map<Long, T> multiGetOrLoad(Collection<Long> ids, Function<Long, String> keyFunction, Class<T> clazz,
+                                           Function<List<Long>, List<T>> loader, Function<T, Long> idFunction) {
+        return multiGetOrLoad(ids, keyFunction, clazz, loader, idFunction, DEFAULT_EXPIRE_TIME);
+    }
+
+    /**
+     * 按ID批量获取缓存，未命中的ID一次性回源加载并回写（指定过期时间）
+     */
+    public <T> Map<Long, T> multiGetOrLoad(Collection<Long> ids, Function<Long, String> keyFunction, Class<T> clazz,
+                                           Function<List<Long>, List<T>> loader, Function<T, Long> idFunction,
+                                           long expireSeconds) {
+        return multiGetOrLoad(ids, keyFunction, clazz, loader, idFunction, expireSeconds, null);
+    }
+
+    /**
+     * 按ID批量获取缓存，未命中的ID一次性回源加载并回写，回写的Key按tagFunction打标签
+     * @param tagFunction 实体 -> 标签（可为null）
+     */
+    public <T> Map<Long, T> multiGetOrLoad(Collection<Long> ids, Function<Long, String> keyFunction, Class<T> clazz,
+                                           Function<List<Long>, List<T>> loader, Function<T, Long> idFunction,
+                                           long expireSeconds, Function<T, Collection<String>> tagFunction) {
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        Map<Long, T> result = new LinkedHashMap<>();
+        if (distinctIds.isEmpty()) {
+            return result;
+        }
+        List<String> keys = distinctIds.stream().map(keyFunction).toList();
+        Map<String, T> cached = multiGet(keys, clazz);
+
+        List<Long> missing = new ArrayList<>();
+        Map<Long, T> found = new HashMap<>();
+        for (int i = 0; i < distinctIds.size(); i++) {
+            T value = cached.get(keys.get(i));
+            if (value != null) {
+                found.put(distinctIds.get(i), value);
+            } else {
+                missing.add(distinctIds.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<String, Object> toCache = new HashMap<>();
+            Map<String, Collection<String>> keyTags = new HashMap<>();
+            long start = System.nanoTime();
+            List<T> loadedValues = loader.apply(missing);
+            cacheMetrics.recordLoad(keys.get(0), System.nanoTime() - start);
+            for (T loaded : loadedValues) {
+                Long id = idFunction.apply(loaded);
+                found.put(id, loaded);
+                String key = keyFunction.apply(id);
+                toCache.put(key, loaded);
+                if (tagFunction != null) {
+                    keyTags.put(key, tagFunction.apply(loaded));
+                }
+            }
+            Map<String, Long> expires = new HashMap<>();
+            toCache.keySet().forEach(key -> expires.put(key, ttlPolicy.ttl(key, expireSeconds)));
+            multiSet(toCache, expires::get);
+            // 标签集合要比其中最晚过期的Key活得更久
+            tag(keyTags, expires.values().stream().mapToLong(Long::longValue).max().orElse(expireSeconds));
+        }
+        for (Long id : distinctIds) {
+            T value = found.get(id);
+            if (value != null) {
+                result.put(id, value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 获取信息流分页缓存，未命中时回源加载
+     * 同一个Key的并发未命中只会有一个线程执行loader，其余线程等待其结果，
+     * 避免失效后瞬间的请求全部打到MySQL
+     */
+    public <T> T getFeedPage(Long categoryId, String sort, int page, int size,
+                             TypeReference<T> type, Supplier<T> loader) {
+        String key = getFeedPageKey(categoryId, sort, page, size);
+        T cached = get(key, type);
+        if (cached != null) {
+            return cached;
+        }
+        return singleFlight(key, () -> {
+            T value = timedLoad(key, loader);
+            if (value != null) {
+                put(key, value, FEED_EXPIRE_TIME);
+                tag(key, FEED_EXPIRE_TIME, getFeedTag(categoryId));
+            }
+            return value;
+        });
+    }
+
+    /**
+     * 获取缓存，未命中时回源加载（防缓存击穿）
+     * 本节点内同一个Key的并发未命中只有一个线程执行loader；跨节点通过Redis短锁协调，
+     * 未抢到锁的请求等待持锁节点写入缓存，超时后自行回源。
+     * Key在过期时间之后还会保留一个旧值窗口：窗口内只有抢到锁的请求回源刷新，其余请求直接返回旧值。
+     * 实际过期时间由 CacheTtlPolicy 按Key热度和命名空间读写比调整，并带随机抖动，避免同一批Key同时过期。
+     * loader返回null时写入短期的不存在标记，标记有效期内直接返回null，实体新建后需调用 clearMissing
+     * @param expireSeconds 基础过期时间（秒）
+     * @return 缓存值或loader结果，不存在时返回null
+     */
+    public <T> T getOrLoad(String key, Class<T> clazz, Supplier<T> loader, long expireSeconds) {
+        recordAccess(key);
+        if (isLocalCacheable(key)) {
+            Object local = localCache.getIfPresent(key);
+            if (local == MISSING) {
+                cacheMetrics.hit(key, CacheMetrics.LOCAL);
+                return null;
+            }
+            if (clazz.isInstance(local)) {
+                cacheMetrics.hit(key, CacheMetrics.LOCAL);
+                return clazz.cast(copyOf(local));
+            }
+        }
+
+        T cached = null;
+        long ttlMillis = -2;
+        boolean missing = false;
+        try (CacheMetrics.Scope ignored = cacheMetrics.scope(key)) {
+            List<Object> results = readEntry(key);
+            Object value = results.get(0);
+            if (value != null) {
+                cached = clazz.isInstance(value) ? clazz.cast(value) : objectMapper.convertValue(value, clazz);
+                ttlMillis = results.get(1) instanceof Long ttl ? ttl : -1;
+            } else {
+                missing = Boolean.TRUE.equals(results.get(2));
+            }
+            if (value != null || missing) {
+                cacheMetrics.hit(key, CacheMetrics.REDIS);
+            } else {
+                cacheMetrics.miss(key);
+            }
+        } catch (Exception e) {
+            logRedisError("获取缓存失败: key={}", key, e);
+            // Redis不可用（含熔断）时仍在本节点合并回源，结果放入一级缓存，避免所有请求直接打到MySQL
+            return singleFlight(key, () -> {
+                T value = timedLoad(key, loader);
+                if (value != null && isLocalCacheable(key)) {
+                    localCache.put(key, copyOf(value));
+                }
+                return value;
+            });
+        }
+
+        if (missing) {
+            log.debug("命中不存在标记: key={}", key);
+            if (isLocalCacheable(key)) {
+                localCache.put(key, MISSING);
+            }
+            return null;
+        }
+        if (cached != null) {
+            // 没有过期时间或还在新鲜期内
+            if (ttlMillis < 0 || ttlMillis > STALE_WINDOW * 1000) {
+                if (isLocalCacheable(key)) {
+                    localCache.put(key, copyOf(cached));
+                }
+                return cached;
+            }
+            // 已进入旧值窗口：抢到锁的请求回源刷新，其余请求返回旧值
+            String token = tryLock(key);
+            if (token == null) {
+                log.debug("缓存刷新中，返回旧值: key={}", key);
+                return cached;
+            }
+            try {
+                return singleFlight(key, () -> loadAndSet(key, loader, expireSeconds, true));
+            } finally {
+                unlock(key, token);
+            }
+        }
+
+        return singleFlight(key, () -> {
+            String token = tryLock(key);
+            if (token == null) {
+                // 其他节点正在回源，等待其写入缓存或不存在标记
+                Object loaded = awaitOtherNode(key, clazz);
+                if (loaded == MISSING) {
+                    log.debug("其他节点回源未找到数据: key={}", key);
+                    if (isLocalCacheable(key)) {
+                        localCache.put(key, MISSING);
+                    }
+                    return null;
+                }
+                if (loaded != null) {
+                    return clazz.cast(loaded);
+                }
+                log.debug("等待其他节点回源超时，自行回源: key={}", key);
+                return loadAndSet(key, loader, expireSeconds, false);
+            }
+            try {
+                return loadAndSet(key, loader, expireSeconds, false);
+            } finally {
+                unlock(key, token);
+            }
+        });
+    }
+
+    /**
+     * @param refreshing 是否为旧值窗口内的刷新（实体已被删除时需要删掉旧值）
+     */
+    private <T> T loadAndSet(String key, Supplier<T> loader, long expireSeconds, boolean refreshing) {
+        T value = timedLoad(key, loader);
+        if (value != null) {
+            put(key, value, ttlPolicy.ttl(key, expireSeconds) + STALE_WINDOW);
+        } else {
+            if (refreshing) {
+                delete(key);
+            }
+            setMissing(key);
+        }
+        return value;
+    }
+
+    private void setMissing(String key) {
+        try {
+            redisTemplate.opsForValue().set(MISSING_PREFIX + key, 1, MISSING_EXPIRE_TIME, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            logRedisError("写入不存在标记失败: key={}", key, e);
+        }
+        if (isLocalCacheable(key)) {
+            localCache.put(key, MISSING);
+        }
+    }
+
+    /**
+     * 清除不存在标记，实体新建后调用（所有节点的一级缓存标记同时失效）
+     */
+    public void clearMissing(String key) {
+        try {
+            redisTemplate.delete(MISSING_PREFIX + key);
+        } catch (Exception e) {
+            logRedisError("清除不存在标记失败: key={}", key, e);
+        }
+        if (isLocalCacheable(key)) {
+            localCache.invalidate(key);
+            publishInvalidation("K:" + key);
+        }
+    }
+
+    /**
+     * 一次Pipeline读出值、剩余过期时间（毫秒）和不存在标记
+     */
+    private List<Object> readEntry(String key) {
+        return redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                ops.opsForValue().get(key);
+                ops.getExpire(key, TimeUnit.MILLISECONDS);
+                ops.hasKey(MISSING_PREFIX + key);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * 轮询持锁节点的回源结果，轮询不计入访问热度和命中率
+     * @return 缓存值；持锁节点写入了不存在标记时返回 MISSING；超时或Redis异常时返回null（调用方自行回源）
+     */
+    private Object awaitOtherNode(String key, Class<?> clazz) {
+        for (int i = 0; i < LOAD_WAIT_TIMES; i++) {
+            try {
+                Thread.sleep(LOAD_WAIT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            try (CacheMetrics.Scope ignored = cacheMetrics.scope(key)) {
+                List<Object> results = readEntry(key);
+                Object value = results.get(0);
+                if (value != null) {
+                    Object result = clazz.isInstance(value) ? value : objectMapper.convertValue(value, clazz);
+                    if (isLocalCacheable(key)) {
+                        localCache.put(key, copyOf(result));
+                    }
+                    return result;
+                }
+                if (Boolean.TRUE.equals(results.get(2))) {
+                    return MISSING;
+                }
+            } catch (Exception e) {
+                logRedisError("等待其他节点回源失败: key={}", key, e);
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 本节点内的合并回源：同一个Key只有一个线程执行loader，其余线程等待其结果
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T singleFlight(String key, Supplier<T> loader) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = loading.putIfAbsent(key, future);
+        if (inFlight != null) {
+            log.debug("等待其他线程回源: key={}", key);
+            try {
+                return (T) inFlight.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        try {
+            T value = loader.get();
+            future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    /**
+     * 尝试获取回源锁
+     * @return 锁令牌，未抢到返回null；Redis不可用时返回空串，按抢到锁处理
+     */
+    private String tryLock(String key) {
+        String token = nodeId + ":" + Thread.currentThread().getId();
+        try {
+            Boolean locked = redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.stringCommands().set(
+                    (LOCK_PREFIX + key).getBytes(StandardCharsets.UTF_8),
+                    token.getBytes(StandardCharsets.UTF_8),
+                    Expiration.milliseconds(LOAD_LOCK_MILLIS),
+                    RedisStringCommands.SetOption.ifAbsent()));
+            return Boolean.TRUE.equals(locked) ? token : null;
+        } catch (Exception e) {
+            logRedisError("获取回源锁失败: key={}", key, e);
+            return "";
+        }
+    }
+
+    private void unlock(String key, String token) {
+        if (token.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.execute((RedisCallback<Long>) connection -> connection.scriptingCommands().eval(
+                    UNLOCK_SCRIPT.getBytes(StandardCharsets.UTF_8), ReturnType.INTEGER, 1,
+                    (LOCK_PREFIX + key).getBytes(StandardCharsets.UTF_8),
+                    token.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            logRedisError("释放回源锁失败: key={}", key, e);
+        }
+    }
+
+    /**
+     * 信息流范围标签，用于失效该范围下的全部分页缓存
+     */
+    private String getFeedTag(Long categoryId) {
+        return FEED_PREFIX + getFeedScope(categoryId);
+    }
+
+    /**
+     * 失效信息流分页缓存：全部商品信息流以及给定分类的信息流
+     */
+    public void evictFeedPages(Long... categoryIds) {
+        Set<String> tags = new LinkedHashSet<>();
+        tags.add(getFeedTag(null));
+        for (Long categoryId : categoryIds) {
+            if (categoryId != null) {
+                tags.add(getFeedTag(categoryId));
+            }
+        }
+        invalidateTags(tags.toArray(new String[0]));
+    }
+
+    /**
+     * 给缓存Key打标签
+     * @param expireSeconds Key的过期时间，标签集合保留两倍时间，活跃的标签会一直续期
+     */
+    public void tag(String key, long expireSeconds, String... tags) {
+        tag(Map.of(key, List.of(tags)), expireSeconds);
+    }
+
+    /**
+     * 批量给缓存Key打标签（一次Pipeline）
+     * @param keyTags 缓存Key -> 标签
+     */
+    public void tag(Map<String, ? extends Collection<String>> keyTags, long expireSeconds) {
+        Map<String, List<String>> tagKeys = new HashMap<>();
+        keyTags.forEach((key, tags) -> {
+            for (String tag : tags) {
+                if (tag != null) {
+                    tagKeys.computeIfAbsent(TAG_PREFIX + tag, k -> new ArrayList<>()).add(key);
+                }
+            }
+        });
+        if (tagKeys.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    tagKeys.forEach((tagKey, keys) -> {
+                        ops.opsForSet().add(tagKey, keys.toArray());
+                        ops.expire(tagKey, expireSeconds * 2, TimeUnit.SECONDS);
+                    });
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            logRedisError("登记缓存标签失败: tags={}", tagKeys.keySet(), e);
+        }
+    }
+
+    /**
+     * 按标签失效缓存：只删除标签集合内登记过的Key（分批UNLINK），并删除标签集合本身
+     */
+    public void invalidateTags(String... tags) {
+        for (String tag : tags) {
+            String tagKey = TAG_PREFIX + tag;
+            try {
+                List<String> keys = new ArrayList<>();
+                try (Cursor<Object> cursor = redisTemplate.opsForSet().scan(tagKey,
+                        ScanOptions.scanOptions().count(SCAN_BATCH_SIZE).build())) {
+                    while (cursor.hasNext()) {
+                        keys.add(String.valueOf(cursor.next()));
+                    }
+                }
+                keys.add(tagKey);
+                unlinkInBatches(keys);
+                log.debug("按标签失效缓存: tag={}, keys={}", tag, keys.size() - 1);
+            } catch (Exception e) {
+                logRedisError("按标签失效缓存失败: tag={}", tag, e);
+            }
+        }
+    }
+
+    /**
+     * 分批UNLINK（后台线程回收内存，不阻塞Redis），同时失效一级缓存并广播
+     */
+    private void unlinkInBatches(List<String> keys) {
+        for (int from = 0; from < keys.size(); from += SCAN_BATCH_SIZE) {
+            List<String> batch = keys.subList(from, Math.min(from + SCAN_BATCH_SIZE, keys.size()));
+            batch.forEach(ttlPolicy::recordWrite);
+            redisTemplate.unlink(batch);
+            invalidateLocal(batch);
+        }
+    }
+
+    private void invalidateLocal(List<String> keys) {
+        List<String> local = keys.stream().filter(this::isLocalCacheable).toList();
+        if (!local.isEmpty()) {
+            localCache.invalidateAll(local);
+            publishInvalidation("K:" + String.join("\n", local));
+        }
+    }
+
     /**
      * 删除缓存
      */
     public void delete(String key) {
+        ttlPolicy.recordWrite(key);
         try {
             redisTemplate.delete(key);
             log.debug("删除缓存: key={}", key);
         } catch (Exception e) {
-            log.error("删除缓存失败: key={}", key, e);
+            logRedisError("删除缓存失败: key={}", key, e);
+        }
+        if (isLocalCacheable(key)) {
+            localCache.invalidate(key);
+            publishInvalidation("K:" + key);
         }
     }
 
@@ -117,12 +1018,30 @@ public class CacheService {
      * 批量删除缓存（根据前缀）
      */
     public void deleteByPattern(String pattern) {
-        try {
-            redisTemplate.delete(redisTemplate.keys(pattern));
-            log.debug("批量删除缓存: pattern={}", pattern);
+        ttlPolicy.recordWrite(pattern);
+        // 使用增量SCAN代替KEYS，避免一次遍历整个键空间阻塞Redis
+        long deleted = 0;
+        try (Cursor<String> cursor = redisTemplate.scan(
+                ScanOptions.scanOptions().match(pattern).count(SCAN_BATCH_SIZE).build())) {
+            List<String> batch = new ArrayList<>(SCAN_BATCH_SIZE);
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() >= SCAN_BATCH_SIZE) {
+                    deleted += batch.size();
+                    redisTemplate.unlink(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                deleted += batch.size();
+                redisTemplate.unlink(batch);
+            }
+            log.debug("批量删除缓存: pattern={}, keys={}", pattern, deleted);
         } catch (Exception e) {
-            log.error("批量删除缓存失败: pattern={}", pattern, e);
+            logRedisError("批量删除缓存失败: pattern={}", pattern, e);
         }
+        invalidateLocalByPattern(pattern);
+        publishInvalidation("P:" + pattern);
     }
 
     /**
@@ -133,7 +1052,7 @@ public class CacheService {
             Boolean result = redisTemplate.hasKey(key);
             return Boolean.TRUE.equals(result);
         } catch (Exception e) {
-            log.error("检查缓存是否存在失败: key={}", key, e);
+            logRedisError("检查缓存是否存在失败: key={}", key, e);
             return false;
         }
     }
@@ -153,8 +1072,162 @@ public class CacheService {
             redisTemplate.expire(key, expireSeconds, TimeUnit.SECONDS);
             log.debug("刷新缓存过期时间: key={}, expire={}秒", key, expireSeconds);
         } catch (Exception e) {
-            log.error("刷新缓存过期时间失败: key={}", key, e);
+            logRedisError("刷新缓存过期时间失败: key={}", key, e);
         }
     }
-}
 
+    /**
+     * 接收其他节点的一级缓存失效广播
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf('|');
+        if (separator < 0 || body.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        String target = body.substring(separator + 1);
+        if (target.startsWith("K:")) {
+            localCache.invalidateAll(List.of(target.substring(2).split("\n")));
+        } else if (target.startsWith("P:")) {
+            invalidateLocalByPattern(target.substring(2));
+        }
+        log.debug("收到一级缓存失效广播: {}", target);
+    }
+
+    /**
+     * 一级缓存统计（命中率、淘汰数等）
+     */
+    public CacheStats localCacheStats() {
+        return localCache.stats();
+    }
+
+    /**
+     * 热点Key
+     * @param frequency 最近一次达到阈值时的访问次数估计值（按衰减周期计）
+     * @param localCopy 当前是否有一级缓存副本
+     */
+    public record HotKey(String key, int frequency, boolean localCopy) {}
+
+    /**
+     * 当前热点Key，按访问频率从高到低
+     */
+    public List<HotKey> hotKeys() {
+        return hotKeys.asMap().entrySet().stream()
+                .map(e -> new HotKey(e.getKey(), e.getValue(), localCache.getIfPresent(e.getKey()) != null))
+                .sorted(Comparator.comparingInt(HotKey::frequency).reversed())
+                .toList();
+    }
+
+    /**
+     * 记录一次读取，访问频率达到阈值时标记为热点Key
+     */
+    private void recordAccess(String key) {
+        long now = System.nanoTime();
+        long last = lastDecay.get();
+        if (now - last > hotKeyDecayNanos && lastDecay.compareAndSet(last, now)) {
+            accessSketch.halve();
+        }
+        ttlPolicy.recordRead(key);
+        int frequency = accessSketch.increment(key);
+        if (frequency >= hotKeyThreshold && hotKeys.asMap().put(key, frequency) == null) {
+            log.info("发现热点Key: key={}, 访问频率={}", key, frequency);
+        }
+    }
+
+    /**
+     * 商品实体（product:{id}）、用户实体（user:{id}、user:openid:{openid}），以及其他Key中的热点Key走一级缓存
+     */
+    private boolean isLocalCacheable(String key) {
+        return isLocalNamespace(key) || hotKeys.getIfPresent(key) != null;
+    }
+
+    private static boolean isLocalNamespace(String key) {
+        // 商品卡片、用户配额等同前缀的其他Key不常驻一级缓存
+        return key.startsWith(USER_OPENID_PREFIX) || isIdKey(key, PRODUCT_PREFIX) || isIdKey(key, USER_PREFIX);
+    }
+
+    /**
+     * 判断Key是否为 前缀 + 数字ID
+     */
+    private static boolean isIdKey(String key, String prefix) {
+        if (!key.startsWith(prefix) || key.length() == prefix.length()) {
+            return false;
+        }
+        for (int i = prefix.length(); i < key.length(); i++) {
+            if (!Character.isDigit(key.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void publishInvalidation(String target) {
+        try {
+            // 直接发送字符串字节，不经过JSON序列化器
+            redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(
+                    LOCAL_INVALIDATE_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                    (nodeId + "|" + target).getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            logRedisError("广播一级缓存失效失败: {}", target, e);
+        }
+    }
+
+    /**
+     * 按Redis通配符（* 和 ?）删除一级缓存
+     */
+    private void invalidateLocalByPattern(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        for (char c : pattern.toCharArray()) {
+            if (c == '*') {
+                regex.append(".*");
+            } else if (c == '?') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        Pattern compiled = Pattern.compile(regex.toString());
+        localCache.asMap().keySet().removeIf(key -> compiled.matcher(key).matches());
+    }
+
+    private <T> T timedLoad(String key, Supplier<T> loader) {
+        long start = System.nanoTime();
+        try {
+            return loader.get();
+        } finally {
+            cacheMetrics.recordLoad(key, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 记录Redis操作失败；熔断期间的快速失败只记debug日志，避免刷屏
+     */
+    private void logRedisError(String message, Object arg, Exception e) {
+        cacheMetrics.error(arg instanceof String key ? key : null, e);
+        if (e instanceof RedisCircuitOpenException) {
+            log.debug(message + "（Redis熔断中）", arg);
+        } else {
+            log.error(message, arg, e);
+        }
+    }
+
+    /**
+     * 一级缓存中的对象会被多个请求共享，存取时做浅拷贝，避免调用方修改返回的实体（如改写coverUrl）污染缓存
+     * 实体字段都是不可变类型（String、数值、Instant等），浅拷贝即可
+     */
+    private Object copyOf(Object value) {
+        if (value == null || value instanceof Record || value instanceof String || value instanceof Number
+                || value instanceof Boolean || value.getClass().isEnum()) {
+            return value;
+        }
+        try {
+            Object copy = BeanUtils.instantiateClass(value.getClass());
+            BeanUtils.copyProperties(value, copy);
+            return copy;
+        } catch (Exception e) {
+            // 无法拷贝（如没有无参构造函数），直接共享
+            return value;
+        }
+    }
+}
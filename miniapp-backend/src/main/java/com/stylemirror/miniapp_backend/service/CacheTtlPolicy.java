@@ -0,0 +1,163 @@
+package com.stylemirror.miniapp_backend.service;
+
+import com.stylemirror.miniapp_backend.util.CountMinSketch;
+import io.micrometer.core.instrument.Gauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 缓存过期时间策略
+ * 按Key的近期读取次数（Count-Min Sketch，按popularity-decay周期减半）和所在命名空间的读写比决定过期时间：
+ * - 热点且命名空间读多写少：基础过期时间 x max-factor
+ * - 冷Key（近期几乎没有读取）或命名空间写多读少：基础过期时间 x min-factor
+ * - 其他：基础过期时间
+ * 最后加上 [0, jitter-ratio) 的随机抖动，避免同一批写入的Key同时过期。
+ * 写入指 set/delete/按标签失效等数据变更，回源回填不计入
+ */
+@Service
+@Slf4j
+public class CacheTtlPolicy {
+    public static final String EXTEND = "extend";
+    public static final String SHORTEN = "shorten";
+    public static final String BASE = "base";
+
+    // 4行 x 16384列计数器（256KB）
+    private static final int SKETCH_DEPTH = 4;
+    private static final int SKETCH_WIDTH = 1 << 14;
+
+    private final CacheMetrics cacheMetrics;
+    private final CountMinSketch popularity = new CountMinSketch(SKETCH_DEPTH, SKETCH_WIDTH);
+    private final Map<String, NamespaceCounts> namespaces = new ConcurrentHashMap<>();
+    private final AtomicLong lastDecay = new AtomicLong(System.nanoTime());
+
+    private final long decayNanos;
+    private final int hotReads;
+    private final int coldReads;
+    private final double readMostlyRatio;
+    private final double writeHeavyRatio;
+    private final double minFactor;
+    private final double maxFactor;
+    private final double jitterRatio;
+
+    /**
+     * @param popularityDecay 读写计数减半的周期，热度和读写比反映最近几个周期
+     * @param hotReads 周期内读取次数（估计值）达到该值为热点
+     * @param coldReads 周期内读取次数不超过该值为冷Key
+     * @param readMostlyRatio 命名空间读写比达到该值为读多写少
+     * @param writeHeavyRatio 命名空间读写比低于该值为写多读少
+     */
+    public CacheTtlPolicy(
+            CacheMetrics cacheMetrics,
+            @Value("${cache.ttl.popularity-decay:PT5M}") Duration popularityDecay,
+            @Value("${cache.ttl.hot-reads:20}") int hotReads,
+            @Value("${cache.ttl.cold-reads:1}") int coldReads,
+            @Value("${cache.ttl.read-mostly-ratio:10}") double readMostlyRatio,
+            @Value("${cache.ttl.write-heavy-ratio:1}") double writeHeavyRatio,
+            @Value("${cache.ttl.min-factor:0.25}") double minFactor,
+            @Value("${cache.ttl.max-factor:4}") double maxFactor,
+            @Value("${cache.ttl.jitter-ratio:0.1}") double jitterRatio) {
+        this.cacheMetrics = cacheMetrics;
+        this.decayNanos = popularityDecay.toNanos();
+        this.hotReads = hotReads;
+        this.coldReads = coldReads;
+        this.readMostlyRatio = readMostlyRatio;
+        this.writeHeavyRatio = writeHeavyRatio;
+        this.minFactor = minFactor;
+        this.maxFactor = maxFactor;
+        this.jitterRatio = jitterRatio;
+    }
+
+    /**
+     * 命名空间读写计数：上一周期衰减后的累计值 + 当前周期计数
+     */
+    private static class NamespaceCounts {
+        private final LongAdder reads = new LongAdder();
+        private final LongAdder writes = new LongAdder();
+        private volatile long previousReads;
+        private volatile long previousWrites;
+
+        void decay() {
+            previousReads = previousReads / 2 + reads.sumThenReset();
+            previousWrites = previousWrites / 2 + writes.sumThenReset();
+        }
+
+        double readWriteRatio() {
+            return (double) (previousReads + reads.sum()) / Math.max(previousWrites + writes.sum(), 1);
+        }
+    }
+
+    public void recordRead(String key) {
+        decayIfDue();
+        popularity.increment(key);
+        counts(key).reads.increment();
+    }
+
+    public void recordWrite(String key) {
+        decayIfDue();
+        counts(key).writes.increment();
+    }
+
+    /**
+     * 计算Key的过期时间（秒）
+     * @param baseSeconds 基础过期时间
+     */
+    public long ttl(String key, long baseSeconds) {
+        String decision = decide(key);
+        double factor = switch (decision) {
+            case EXTEND -> maxFactor;
+            case SHORTEN -> minFactor;
+            default -> 1;
+        };
+        long seconds = Math.max((long) (baseSeconds * factor), 1);
+        long bound = (long) (seconds * jitterRatio);
+        if (bound > 0) {
+            seconds += ThreadLocalRandom.current().nextLong(bound);
+        }
+        cacheMetrics.ttlDecision(key, decision, seconds);
+        return seconds;
+    }
+
+    /**
+     * 过期时间决策：extend、shorten 或 base
+     */
+    String decide(String key) {
+        int reads = popularity.estimate(key);
+        double ratio = counts(key).readWriteRatio();
+        if (reads >= hotReads && ratio >= readMostlyRatio) {
+            return EXTEND;
+        }
+        if (reads <= coldReads || ratio < writeHeavyRatio) {
+            return SHORTEN;
+        }
+        return BASE;
+    }
+
+    private NamespaceCounts counts(String key) {
+        return namespaces.computeIfAbsent(CacheMetrics.namespace(key), namespace -> {
+            NamespaceCounts counts = new NamespaceCounts();
+            Gauge.builder("cache.read.write.ratio", counts, NamespaceCounts::readWriteRatio)
+                    .description("命名空间近期读写比（读取次数 / 数据变更次数）")
+                    .tag("namespace", namespace)
+                    .register(cacheMetrics.registry());
+            return counts;
+        });
+    }
+
+    private void decayIfDue() {
+        long now = System.nanoTime();
+        long last = lastDecay.get();
+        if (now - last > decayNanos && lastDecay.compareAndSet(last, now)) {
+            popularity.halve();
+            namespaces.values().forEach(NamespaceCounts::decay);
+            log.debug("缓存过期策略计数衰减: namespaces={}", namespaces.keySet());
+        }
+    }
+}
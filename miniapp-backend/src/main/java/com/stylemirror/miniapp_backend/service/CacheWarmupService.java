@@ -0,0 +1,204 @@
+package com.stylemirror.miniapp_backend.service;
+
+import com.stylemirror.miniapp_backend.domain.Category;
+import com.stylemirror.miniapp_backend.mapper.ProductStatisticsMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 缓存预热服务
+ * 上下文刷新完成后、就绪状态上报前（ApplicationStartedEvent）同步预热热点数据，避免发布后前几分钟请求全部穿透到MySQL：
+ * 全部分类、近期浏览量最高的N个商品（及其卖家、商品卡片）、信息流首页。
+ * 商品按批次并发加载（每批一次MGET + 一次selectBatchIds + 一次Pipeline写入），并发数和总耗时有上限；
+ * 之后定时重新预热，保证热点商品一直在缓存中。预热进度同时以 cache.warmup.* 指标导出
+ */
+@Service
+@Slf4j
+public class CacheWarmupService {
+    // 预热状态，指标值为下标
+    private static final List<String> STATUSES = List.of("IDLE", "RUNNING", "DONE", "TIMEOUT", "FAILED");
+
+    private final ProductStatisticsMapper productStatisticsMapper;
+    private final CategoryService categoryService;
+    private final ProductService productService;
+    private final ProductCardService productCardService;
+
+    private final boolean enabled;
+    private final int topProducts;
+    private final int days;
+    private final int batchSize;
+    private final int concurrency;
+    private final long timeoutSeconds;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile Progress progress = new Progress("IDLE", 0, 0, 0, null, 0);
+
+    public CacheWarmupService(
+            ProductStatisticsMapper productStatisticsMapper,
+            CategoryService categoryService,
+            ProductService productService,
+            ProductCardService productCardService,
+            MeterRegistry meterRegistry,
+            @Value("${cache.warmup.enabled:true}") boolean enabled,
+            @Value("${cache.warmup.top-products:500}") int topProducts,
+            @Value("${cache.warmup.days:7}") int days,
+            @Value("${cache.warmup.batch-size:100}") int batchSize,
+            @Value("${cache.warmup.concurrency:4}") int concurrency,
+            @Value("${cache.warmup.timeout-seconds:60}") long timeoutSeconds) {
+        this.productStatisticsMapper = productStatisticsMapper;
+        this.categoryService = categoryService;
+        this.productService = productService;
+        this.productCardService = productCardService;
+        this.enabled = enabled;
+        this.topProducts = topProducts;
+        this.days = days;
+        this.batchSize = Math.max(batchSize, 1);
+        this.concurrency = Math.max(concurrency, 1);
+        this.timeoutSeconds = timeoutSeconds;
+        Gauge.builder("cache.warmup.total", this, service -> service.progress.total())
+                .description("本次预热的商品数")
+                .register(meterRegistry);
+        Gauge.builder("cache.warmup.warmed", this, service -> service.progress.warmed())
+                .description("本次已预热的商品数")
+                .register(meterRegistry);
+        Gauge.builder("cache.warmup.failed.batches", this, service -> service.progress.failedBatches())
+                .description("本次预热失败的批次数")
+                .register(meterRegistry);
+        Gauge.builder("cache.warmup.status", this, service -> STATUSES.indexOf(service.progress.status()))
+                .description("预热状态：0=IDLE，1=RUNNING，2=DONE，3=TIMEOUT，4=FAILED")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 预热进度
+     * @param status IDLE、RUNNING、DONE、TIMEOUT、FAILED
+     * @param total 待预热的商品数
+     * @param warmed 已预热的商品数
+     * @param failedBatches 失败的批次数
+     */
+    public record Progress(String status, int total, int warmed, int failedBatches, Instant startedAt, long elapsedMillis) {}
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void onApplicationStarted() {
+        if (enabled) {
+            warmUp();
+        }
+    }
+
+    /**
+     * 定时重新预热（默认每10分钟）
+     */
+    @Scheduled(initialDelayString = "${cache.warmup.interval:PT10M}", fixedDelayString = "${cache.warmup.interval:PT10M}")
+    public void scheduledWarmUp() {
+        if (enabled) {
+            warmUp();
+        }
+    }
+
+    public Progress progress() {
+        return progress;
+    }
+
+    /**
+     * 执行一次预热，已有预热在执行时直接返回当前进度
+     */
+    public Progress warmUp() {
+        if (!running.compareAndSet(false, true)) {
+            return progress;
+        }
+        Instant startedAt = Instant.now();
+        long start = System.nanoTime();
+        try {
+            List<Category> categories = categoryService.findAll();
+            categoryService.findByIds(categories.stream().map(Category::getId).toList());
+            productService.findAll(0, 20);
+
+            String startDate = LocalDate.now().minusDays(days).toString();
+            List<Long> productIds = productStatisticsMapper.getTopViewedProductIds(startDate, topProducts);
+            progress = new Progress("RUNNING", productIds.size(), 0, 0, startedAt, 0);
+            String status = warmProducts(productIds, startedAt, start);
+
+            long elapsed = Duration.ofNanos(System.nanoTime() - start).toMillis();
+            progress = new Progress(status, productIds.size(), progress.warmed(), progress.failedBatches(), startedAt, elapsed);
+            log.info("缓存预热完成: 状态={}, 分类数={}, 商品数={}/{}, 失败批次={}, 耗时={}ms",
+                    status, categories.size(), progress.warmed(), productIds.size(), progress.failedBatches(), elapsed);
+        } catch (Exception e) {
+            long elapsed = Duration.ofNanos(System.nanoTime() - start).toMillis();
+            progress = new Progress("FAILED", progress.total(), progress.warmed(), progress.failedBatches(), startedAt, elapsed);
+            // 预热失败不影响启动，请求会按需回源
+            log.error("缓存预热失败", e);
+        } finally {
+            running.set(false);
+        }
+        return progress;
+    }
+
+    /**
+     * 分批并发预热商品卡片（同时回填商品、卖家、分类缓存）
+     * @return DONE 或 TIMEOUT
+     */
+    private String warmProducts(List<Long> productIds, Instant startedAt, long start) {
+        AtomicInteger warmed = new AtomicInteger();
+        AtomicInteger failedBatches = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "cache-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int from = 0; from < productIds.size(); from += batchSize) {
+                List<Long> batch = productIds.subList(from, Math.min(from + batchSize, productIds.size()));
+                futures.add(executor.submit(() -> {
+                    try {
+                        productCardService.findByIds(batch);
+                        warmed.addAndGet(batch.size());
+                    } catch (Exception e) {
+                        failedBatches.incrementAndGet();
+                        log.warn("预热商品批次失败: {}", batch, e);
+                    }
+                    if (running.get()) {
+                        progress = new Progress("RUNNING", productIds.size(), warmed.get(), failedBatches.get(), startedAt,
+                                Duration.ofNanos(System.nanoTime() - start).toMillis());
+                    }
+                }));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+            for (Future<?> future : futures) {
+                try {
+                    future.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    // 超时后不再阻塞启动，剩余批次放弃
+                    log.warn("缓存预热超时（{}秒），剩余批次放弃", timeoutSeconds);
+                    return "TIMEOUT";
+                } catch (Exception e) {
+                    // 批次内已记录
+                }
+            }
+            return "DONE";
+        } finally {
+            executor.shutdownNow();
+            progress = new Progress(progress.status(), productIds.size(), warmed.get(), failedBatches.get(), startedAt,
+                    Duration.ofNanos(System.nanoTime() - start).toMillis());
+        }
+    }
+}
@@ -1,17 +1,23 @@
 package com.stylemirror.miniapp_backend.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
-import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.stylemirror.miniapp_backend.common.CountMode;
 import com.stylemirror.miniapp_backend.common.PageResponse;
 import com.stylemirror.miniapp_backend.domain.Category;
 import com.stylemirror.miniapp_backend.repository.CategoryMapper;
+import com.stylemirror.miniapp_backend.util.FulltextQuery;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -23,6 +29,10 @@ import java.util.Optional;
 @Slf4j
 public class CategoryService {
     private final CategoryMapper categoryMapper;
+    private final ProductSearchIndex productSearchIndex;
+    private final CacheService cacheService;
+    private final PageQueryService pageQueryService;
+    private final RenderedResponseCache renderedResponseCache;
 
     /**
      * 查询所有分类
@@ -40,11 +50,53 @@ public class CategoryService {
      * @return 分页响应
      */
     public PageResponse<Category> findPage(int page, int size, String keyword) {
-        Page<Category> pageObj = new Page<>(page, size);
+        return findPage(page, size, keyword, CountMode.EXACT);
+    }
+
+    /**
+     * 分页查询分类列表（管理端使用，指定总数统计方式）
+     */
+    public PageResponse<Category> findPage(int page, int size, String keyword, CountMode countMode) {
+        // 关键词优先走全文索引（idx_categories_fulltext，ngram解析器）
+        String against = FulltextQuery.booleanQuery(keyword);
+        PageResponse<Category> result = null;
+        if (against != null) {
+            try {
+                result = pageQueryService.selectPage(categoryMapper, Category.class, pageWrapper(keyword, against),
+                        page, size, countMode);
+            } catch (DataAccessException e) {
+                // 全文索引缺失（迁移未执行）等情况回退到LIKE
+                log.warn("分类全文检索失败，回退LIKE查询: {}", e.getMessage());
+            }
+        }
+        if (result == null) {
+            result = pageQueryService.selectPage(categoryMapper, Category.class, pageWrapper(keyword, null),
+                    page, size, countMode);
+        }
+        log.debug("分页查询分类: page={}, size={}, keyword={}, countMode={}, total={}, records={}",
+                page, size, keyword, countMode, result.getTotal(), result.getContent().size());
+        if (log.isTraceEnabled()) {
+            for (Category cat : result.getContent()) {
+                log.trace("  分类: id={}, name={}", cat.getId(), cat.getName());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 管理端分类查询条件
+     * @param against 全文检索查询串（null表示使用LIKE匹配关键词）
+     */
+    private QueryWrapper<Category> pageWrapper(String keyword, String against) {
         QueryWrapper<Category> wrapper = new QueryWrapper<>();
         
         // 关键词搜索：名称或描述
-        if (StringUtils.hasText(keyword)) {
+        if (against != null) {
+            wrapper.apply("MATCH(name, description) AGAINST({0} IN BOOLEAN MODE)", against);
+            // 按相关度排序
+            wrapper.orderByDesc(FulltextQuery.matchExpression("name, description", against));
+        } else if (StringUtils.hasText(keyword)) {
+            // 关键词过短，ngram索引无法命中
             wrapper.and(w -> w.like("name", keyword)
                     .or()
                     .like("description", keyword));
@@ -52,18 +104,7 @@ public class CategoryService {
         
         // 按ID倒序（ID是自增的，可以表示创建顺序）
         wrapper.orderByDesc("id");
-        
-        Page<Category> result = categoryMapper.selectPage(pageObj, wrapper);
-        log.info("\n========== CategoryService.findPage ==========");
-        log.info("查询参数: page={}, size={}, keyword={}", page, size, keyword);
-        log.info("selectPage返回: total={}, records.size={}", result.getTotal(), result.getRecords().size());
-        if (!result.getRecords().isEmpty()) {
-            for (int i = 0; i < result.getRecords().size(); i++) {
-                Category cat = result.getRecords().get(i);
-                log.info("  记录[{}]: id={}, name={}", i, cat.getId(), cat.getName());
-            }
-        }
-        return PageResponse.of(result.getRecords(), (int) result.getCurrent(), (int) result.getSize(), result.getTotal());
+        return wrapper;
     }
 
     /**
@@ -73,6 +114,15 @@ public class CategoryService {
         return Optional.ofNullable(categoryMapper.selectById(id));
     }
 
+    /**
+     * 批量查询分类（带缓存）：一次MGET，未命中的一次selectBatchIds
+     * @return 分类ID -> 分类（按传入ID顺序，不存在的分类不包含在内）
+     */
+    public Map<Long, Category> findByIds(Collection<Long> ids) {
+        return cacheService.multiGetOrLoad(ids, cacheService::getCategoryKey, Category.class,
+                categoryMapper::selectBatchIds, Category::getId);
+    }
+
     /**
      * 根据名称查询分类
      */
@@ -93,6 +143,11 @@ public class CategoryService {
         } else {
             categoryMapper.updateById(category);
             log.info("更新分类，ID: {}, 名称: {}", category.getId(), category.getName());
+            runAfterCommit(() -> {
+                // 分类名称参与商品搜索，同步更新索引
+                productSearchIndex.onCategoryChanged(category);
+                evictDerived(category.getId());
+            });
         }
         return category;
     }
@@ -103,7 +158,33 @@ public class CategoryService {
     @Transactional(rollbackFor = Exception.class)
     public void deleteById(Long id) {
         categoryMapper.deleteById(id);
+        runAfterCommit(() -> evictDerived(id));
         log.info("删除分类，ID: {}", id);
     }
+
+    /**
+     * 失效分类缓存，以及带有分类名称的商品卡片和已序列化的商品详情
+     */
+    private void evictDerived(Long categoryId) {
+        cacheService.delete(cacheService.getCategoryKey(categoryId));
+        cacheService.invalidateTags(cacheService.getCategoryTag(categoryId));
+        renderedResponseCache.onCategoryChanged(categoryId);
+    }
+
+    /**
+     * 事务提交后执行（没有事务时立即执行），避免提交前被并发请求用旧数据重新填充缓存
+     */
+    private void runAfterCommit(Runnable sync) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    sync.run();
+                }
+            });
+        } else {
+            sync.run();
+        }
+    }
 }
 
@@ -26,7 +26,7 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment> impl
     private final CommentMapper commentMapper;
     private final UserMapper userMapper;
     private final CommentLikeService commentLikeService;
-    private final ContentFilterService contentFilterService;
+    private final ModerationService moderationService;
     
     @Override
     public Comment publishComment(Comment comment, Long userId) {
@@ -40,7 +40,7 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment> impl
         comment.setUpdatedAt(LocalDateTime.now());
         
         // 过滤违禁词
-        String filteredContent = contentFilterService.filterBannedWords(comment.getContent());
+        String filteredContent = moderationService.filterSensitiveWords(comment.getContent());
         comment.setContent(filteredContent);
         
         this.save(comment);
@@ -0,0 +1,233 @@
+package com.stylemirror.miniapp_backend.service;
+
+import com.stylemirror.miniapp_backend.util.BloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 已存在实体的布隆过滤器
+ * 启动时从数据库加载商品ID、用户ID和分享码，明显不存在的Key（已删除或伪造的ID、未知分享码）
+ * 直接判定为不存在，不再查缓存和MySQL。
+ * 新建实体时通过Redis发布订阅通知所有节点加入过滤器；过滤器构建完成前一律判定为可能存在。
+ * 广播是尽力而为的，为避免漏收广播造成误判不存在：
+ * 定时按自增ID增量加载构建后新增的行，定时全量重建；
+ * 商品、用户ID大于已加载的最大ID时一律判定为可能存在，交给缓存和不存在标记处理
+ */
+@Service
+@Slf4j
+public class ExistenceFilter implements MessageListener {
+    public static final String PRODUCT = "product";
+    public static final String USER = "user";
+    public static final String SHARE_LINK = "share";
+
+    // 过滤器名称 -> 数据来源
+    private static final Map<String, Source> SOURCES = Map.of(
+            PRODUCT, new Source("products", "id"),
+            USER, new Source("users", "id"),
+            SHARE_LINK, new Source("share_links", "code"));
+    // 新增广播频道，消息格式：节点ID|过滤器名称|Key
+    private static final String ADD_CHANNEL = "cache:existence:add";
+    // 误判率
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    // 容量 = 现有数量 * 2 + 预留，给启动后的新增留出空间
+    private static final long RESERVED_CAPACITY = 100_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final boolean enabled;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, Filter> filters = Map.of(
+            PRODUCT, new Filter(), USER, new Filter(), SHARE_LINK, new Filter());
+
+    public ExistenceFilter(
+            JdbcTemplate jdbcTemplate,
+            RedisTemplate<String, Object> redisTemplate,
+            RedisMessageListenerContainer listenerContainer,
+            @Value("${cache.existence-filter.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        listenerContainer.addMessageListener(this, new ChannelTopic(ADD_CHANNEL));
+    }
+
+    /**
+     * 过滤器的数据来源
+     * @param table 表名（自增主键id）
+     * @param keyColumn 过滤器Key所在列
+     */
+    private record Source(String table, String keyColumn) {
+        String selectAll() {
+            return "SELECT id, " + keyColumn + " FROM " + table;
+        }
+    }
+
+    /**
+     * 单个过滤器，构建期间的新增先记下，构建完成后补进新过滤器
+     */
+    private static class Filter {
+        private volatile BloomFilter bloom;
+        // 已从数据库加载的最大ID，增量加载从这里继续
+        private volatile long maxId = Long.MAX_VALUE;
+        private boolean building;
+        private final List<String> pending = new ArrayList<>();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        for (String name : SOURCES.keySet()) {
+            try {
+                rebuild(name);
+            } catch (Exception e) {
+                // 构建失败时过滤器不生效，所有Key按可能存在处理
+                log.error("构建布隆过滤器失败: {}", name, e);
+            }
+        }
+    }
+
+    /**
+     * 定时全量重建（默认每小时），修正漏收的广播并按当前数量重新估算容量
+     */
+    @Scheduled(initialDelayString = "${cache.existence-filter.rebuild-interval:PT1H}",
+            fixedDelayString = "${cache.existence-filter.rebuild-interval:PT1H}")
+    public void scheduledRebuild() {
+        onApplicationReady();
+    }
+
+    /**
+     * 定时增量加载（默认每30秒）构建后新增的行，漏收广播的新Key最多在这段时间内被误判为不存在
+     */
+    @Scheduled(initialDelayString = "${cache.existence-filter.catch-up-interval:PT30S}",
+            fixedDelayString = "${cache.existence-filter.catch-up-interval:PT30S}")
+    public void catchUp() {
+        if (!enabled) {
+            return;
+        }
+        for (Map.Entry<String, Source> entry : SOURCES.entrySet()) {
+            Filter filter = filters.get(entry.getKey());
+            if (filter.bloom == null) {
+                continue;
+            }
+            try {
+                long[] maxId = {filter.maxId};
+                jdbcTemplate.query(entry.getValue().selectAll() + " WHERE id > ?", rs -> {
+                    addLocal(entry.getKey(), rs.getString(2));
+                    maxId[0] = Math.max(maxId[0], rs.getLong(1));
+                }, filter.maxId);
+                filter.maxId = maxId[0];
+            } catch (Exception e) {
+                log.error("增量加载布隆过滤器失败: {}", entry.getKey(), e);
+            }
+        }
+    }
+
+    /**
+     * 从数据库重建过滤器
+     */
+    public void rebuild(String name) {
+        Filter filter = filters.get(name);
+        synchronized (filter) {
+            filter.building = true;
+            filter.pending.clear();
+        }
+        Source source = SOURCES.get(name);
+        BloomFilter bloom;
+        long[] maxId = {0};
+        try {
+            Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + source.table(), Long.class);
+            long expected = (count != null ? count : 0) * 2 + RESERVED_CAPACITY;
+            bloom = BloomFilter.create(expected, FALSE_POSITIVE_RATE);
+            jdbcTemplate.query(source.selectAll(), rs -> {
+                bloom.put(rs.getString(2));
+                maxId[0] = Math.max(maxId[0], rs.getLong(1));
+            });
+            log.info("布隆过滤器构建完成: {}, 数量: {}, 位数: {}, 哈希函数数: {}",
+                    name, count, bloom.bitCount(), bloom.hashCount());
+        } catch (RuntimeException e) {
+            synchronized (filter) {
+                filter.building = false;
+                filter.pending.clear();
+            }
+            throw e;
+        }
+        synchronized (filter) {
+            filter.pending.forEach(bloom::put);
+            filter.pending.clear();
+            filter.bloom = bloom;
+            filter.maxId = maxId[0];
+            filter.building = false;
+        }
+    }
+
+    /**
+     * 判断Key是否可能存在，返回false时一定不存在
+     */
+    public boolean mightContain(String name, Object key) {
+        if (!enabled || key == null) {
+            return true;
+        }
+        Filter filter = filters.get(name);
+        BloomFilter bloom = filter.bloom;
+        if (bloom == null || bloom.mightContain(key.toString())) {
+            return true;
+        }
+        // 大于已加载最大ID的数字ID可能是漏收广播的新实体
+        return key instanceof Number id && id.longValue() > filter.maxId;
+    }
+
+    /**
+     * 新建实体后加入过滤器，并通知其他节点
+     */
+    public void add(String name, Object key) {
+        if (!enabled || key == null) {
+            return;
+        }
+        addLocal(name, key.toString());
+        try {
+            String body = nodeId + "|" + name + "|" + key;
+            redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(
+                    ADD_CHANNEL.getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            log.error("广播布隆过滤器新增失败: {}={}", name, key, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length == 3 && !parts[0].equals(nodeId) && filters.containsKey(parts[1])) {
+            addLocal(parts[1], parts[2]);
+        }
+    }
+
+    private void addLocal(String name, String key) {
+        Filter filter = filters.get(name);
+        synchronized (filter) {
+            if (filter.bloom != null) {
+                filter.bloom.put(key);
+            }
+            if (filter.building) {
+                filter.pending.add(key);
+            }
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package com.stylemirror.miniapp_backend.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
-import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.stylemirror.miniapp_backend.common.CountMode;
 import com.stylemirror.miniapp_backend.common.PageResponse;
 import com.stylemirror.miniapp_backend.domain.Favorite;
 import com.stylemirror.miniapp_backend.domain.Product;
@@ -25,6 +25,7 @@ import java.util.stream.Collectors;
 public class FavoriteService {
     private final FavoriteMapper favoriteMapper;
     private final ProductMapper productMapper;
+    private final PageQueryService pageQueryService;
 
     /**
      * 添加收藏
@@ -87,19 +88,25 @@ public class FavoriteService {
      * 分页查询用户的收藏列表
      */
     public PageResponse<Product> getFavoriteProducts(Long userId, int page, int size) {
+        return getFavoriteProducts(userId, page, size, CountMode.EXACT);
+    }
+
+    /**
+     * 分页查询用户的收藏列表（指定总数统计方式）
+     */
+    public PageResponse<Product> getFavoriteProducts(Long userId, int page, int size, CountMode countMode) {
         QueryWrapper<Favorite> wrapper = new QueryWrapper<>();
         wrapper.eq("user_id", userId);
         wrapper.orderByDesc("created_at");
         
-        Page<Favorite> pageObj = new Page<>(page, size);
-        Page<Favorite> result = favoriteMapper.selectPage(pageObj, wrapper);
+        PageResponse<Favorite> result = pageQueryService.selectPage(favoriteMapper, Favorite.class, wrapper, page, size, countMode);
         
-        List<Product> products = result.getRecords().stream()
+        List<Product> products = result.getContent().stream()
                 .map(f -> productMapper.selectById(f.getProductId()))
                 .filter(p -> p != null)
                 .collect(Collectors.toList());
         
-        return PageResponse.of(products, (int) result.getCurrent(), (int) result.getSize(), result.getTotal());
+        return result.withContent(products);
     }
 }
 
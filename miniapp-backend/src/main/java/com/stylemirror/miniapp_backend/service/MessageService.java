@@ -1,7 +1,7 @@
 package com.stylemirror.miniapp_backend.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
-import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.stylemirror.miniapp_backend.common.CountMode;
 import com.stylemirror.miniapp_backend.common.PageResponse;
 import com.stylemirror.miniapp_backend.domain.Message;
 import com.stylemirror.miniapp_backend.repository.MessageMapper;
@@ -22,6 +22,7 @@ import java.util.List;
 public class MessageService {
     private final MessageMapper messageMapper;
     private final ModerationService moderationService;
+    private final PageQueryService pageQueryService;
 
     /**
      * 发送消息
@@ -55,12 +56,17 @@ public class MessageService {
      * 获取用户的所有会话列表（最近一条消息）- 支持分页
      */
     public PageResponse<Message> getConversationList(Long userId, int page, int size) {
-        Page<Message> pageObj = new Page<>(page, size);
+        return getConversationList(userId, page, size, CountMode.EXACT);
+    }
+
+    /**
+     * 获取用户的会话列表（指定总数统计方式）
+     */
+    public PageResponse<Message> getConversationList(Long userId, int page, int size, CountMode countMode) {
         QueryWrapper<Message> wrapper = new QueryWrapper<>();
         wrapper.and(w -> w.eq("from_user", userId).or().eq("to_user", userId));
         wrapper.orderByDesc("created_at");
-        Page<Message> result = messageMapper.selectPage(pageObj, wrapper);
-        return PageResponse.of(result.getRecords(), (int) result.getCurrent(), (int) result.getSize(), result.getTotal());
+        return pageQueryService.selectPage(messageMapper, Message.class, wrapper, page, size, countMode);
     }
 
     /**
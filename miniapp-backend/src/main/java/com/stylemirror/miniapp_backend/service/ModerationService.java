@@ -1,46 +1,248 @@
 package com.stylemirror.miniapp_backend.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.stylemirror.miniapp_backend.domain.BannedWord;
+import com.stylemirror.miniapp_backend.repository.BannedWordMapper;
+import com.stylemirror.miniapp_backend.util.AhoCorasick;
+import com.stylemirror.miniapp_backend.util.TextNormalizer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
-import java.util.regex.Pattern;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * 内容审核服务
- * 负责敏感词过滤和内容审核
+ * 商品发布、私信、评论统一使用的敏感词引擎：词典来自 banned_words 表（含分类），
+ * 词和文本都先标准化（大小写、全角半角、去分隔符），再用 Aho-Corasick 自动机单次扫描匹配，
+ * 命中位置映射回原文后屏蔽。
+ * 词典编译为不可变快照，审核时只读一次 volatile 引用，不加锁；
+ * 启动时（就绪前）同步加载，之后由后台线程重建并整体替换：违禁词增删改、启停时通过Redis发布订阅通知所有节点，
+ * 另外定时全量重建兜底（漏收通知、直接改库）。
+ * 重复出现的文本（纯表情回复、复制粘贴的商品描述、模板化的打招呼）走判定缓存：
+ * 值记录命中位置和词典版本（词典内容的哈希），词典变更后旧判定自动失效；
+ * 本节点为LRU缓存，Key为标准化文本本身（哈希可被构造碰撞，不能用来复用判定）；
+ * 可选通过Redis在节点间共享较长文本的判定，Redis Key为标准化文本的64位哈希，读出的命中位置先校验再使用
  */
 @Service
 @Slf4j
-public class ModerationService {
-    // 敏感词列表（可根据需要扩展）
-    private static final Set<String> SENSITIVE_WORDS = new HashSet<>(Arrays.asList(
-            // 色情相关
-            "色情", "黄色", "成人", "性爱", "做爱", "性交", "性服务", "约炮", "一夜情",
-            // 赌博相关
-            "赌博", "赌场", "博彩", "彩票", "投注", "下注", "赌钱", "赌球", "赌马",
-            // 毒品相关
-            "毒品", "吸毒", "大麻", "冰毒", "海洛因", "摇头丸", "K粉", "可卡因",
-            // 政治敏感
-            "涉政", "政治", "政府", "领导人", "国家机密",
-            // 暴力相关
-            "杀人", "暴力", "恐怖", "爆炸", "武器", "枪支", "炸弹",
-            // 诈骗相关
-            "诈骗", "骗钱", "假货", "假冒", "刷单", "刷信誉",
-            // 其他违规
-            "代孕", "代考", "作弊", "黑客", "病毒", "木马"
-    ));
-
-    // 特殊字符变体映射（用于绕过检测）
-    private static final Map<String, String> VARIANT_MAP = new HashMap<>();
-    
-    static {
-        // 初始化变体映射（如：色情 -> 色*情、色-情等）
-        VARIANT_MAP.put("*", "");
-        VARIANT_MAP.put("-", "");
-        VARIANT_MAP.put("_", "");
-        VARIANT_MAP.put(".", "");
-        VARIANT_MAP.put(" ", "");
+public class ModerationService implements MessageListener {
+    // 词典变更广播频道，消息内容为发出变更的节点ID
+    private static final String CHANGED_CHANNEL = "moderation:dictionary:changed";
+
+    // 判定共享缓存Key前缀：moderation:verdict:{词典版本}:{文本哈希}
+    private static final String VERDICT_PREFIX = "moderation:verdict:";
+
+    private static final Dictionary EMPTY = Dictionary.build(List.of());
+    private static final int[] NO_HITS = new int[0];
+    // 少于该条数的批次直接在调用线程顺序执行
+    private static final int PARALLEL_THRESHOLD = 64;
+
+    private final BannedWordMapper bannedWordMapper;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final CacheService cacheService;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // 重建在单独的线程执行，期间到达的多次变更合并为一次重建
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "moderation-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean refreshPending = new AtomicBoolean(false);
+
+    // 批量审核线程池，所有批量请求共用，并行度有上限
+    private final ForkJoinPool batchPool;
+    private final int batchMaxSize;
+
+    // 判定缓存：标准化文本 -> 命中位置，size为0时不缓存
+    private final Cache<String, CachedHits> verdictCache;
+    private final boolean shareVerdicts;
+    private final int shareMinLength;
+    private final long shareTtlSeconds;
+
+    // 当前词典快照，成功加载前为null
+    private volatile Dictionary dictionary;
+
+    public ModerationService(
+            BannedWordMapper bannedWordMapper,
+            RedisTemplate<String, Object> redisTemplate,
+            RedisMessageListenerContainer listenerContainer,
+            CacheService cacheService,
+            MeterRegistry meterRegistry,
+            @Value("${moderation.batch.parallelism:0}") int batchParallelism,
+            @Value("${moderation.batch.max-size:5000}") int batchMaxSize,
+            @Value("${moderation.verdict-cache.size:100000}") long verdictCacheSize,
+            @Value("${moderation.verdict-cache.redis:false}") boolean shareVerdicts,
+            @Value("${moderation.verdict-cache.redis-min-length:500}") int shareMinLength,
+            @Value("${moderation.verdict-cache.redis-ttl:PT1H}") Duration shareTtl) {
+        this.bannedWordMapper = bannedWordMapper;
+        this.redisTemplate = redisTemplate;
+        this.cacheService = cacheService;
+        int parallelism = batchParallelism > 0 ? batchParallelism : Runtime.getRuntime().availableProcessors();
+        this.batchPool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("moderation-batch-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        this.batchMaxSize = batchMaxSize;
+        if (verdictCacheSize > 0) {
+            this.verdictCache = Caffeine.newBuilder().maximumSize(verdictCacheSize).recordStats().build();
+            CaffeineCacheMetrics.monitor(meterRegistry, verdictCache, "moderation-verdict");
+        } else {
+            this.verdictCache = null;
+        }
+        this.shareVerdicts = shareVerdicts;
+        this.shareMinLength = shareMinLength;
+        this.shareTtlSeconds = shareTtl.toSeconds();
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANGED_CHANNEL));
+    }
+
+    /**
+     * 一处命中
+     * @param word 词典中的原词
+     * @param category 分类
+     * @param start 原文中的起始位置（含）
+     * @param end 原文中的结束位置（不含）
+     */
+    public record Match(String word, String category, int start, int end) {}
+
+    /**
+     * 单条文本的审核结果
+     * @param clean 是否没有命中
+     * @param matches 命中的敏感词、分类及位置
+     * @param maskedText 敏感词替换为*后的文本
+     */
+    public record Verdict(boolean clean, List<Match> matches, String maskedText) {}
+
+    /**
+     * 编译后的词典：自动机中第i个词（标准化后）对应 words[i]、categories[i]；
+     * version 为词和分类内容的哈希，内容相同的词典在各节点上版本相同
+     */
+    private record Dictionary(long version, AhoCorasick automaton, String[] words, String[] categories) {
+
+        static Dictionary build(List<BannedWord> bannedWords) {
+            Map<String, BannedWord> byNormalized = new LinkedHashMap<>();
+            for (BannedWord bannedWord : bannedWords) {
+                if (bannedWord.getWord() != null) {
+                    String normalized = TextNormalizer.normalizeWord(bannedWord.getWord());
+                    if (!normalized.isEmpty()) {
+                        byNormalized.putIfAbsent(normalized, bannedWord);
+                    }
+                }
+            }
+            AhoCorasick automaton = AhoCorasick.build(byNormalized.keySet());
+            String[] words = new String[automaton.size()];
+            String[] categories = new String[automaton.size()];
+            StringBuilder content = new StringBuilder();
+            for (int i = 0; i < automaton.size(); i++) {
+                BannedWord bannedWord = byNormalized.get(automaton.word(i));
+                words[i] = bannedWord.getWord();
+                categories[i] = bannedWord.getCategory();
+                content.append(words[i]).append('\t').append(categories[i]).append('\n');
+            }
+            return new Dictionary(TextNormalizer.hash64(content), automaton, words, categories);
+        }
+    }
+
+    /**
+     * 缓存的判定：词典版本和命中位置（标准化文本中的 词下标, 起始, 结束 三元组）
+     */
+    private record CachedHits(long version, int[] hits) {}
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void onApplicationStarted() {
+        reload();
+    }
+
+    /**
+     * 定时全量重建（默认每5分钟）
+     */
+    @Scheduled(initialDelayString = "${moderation.refresh-interval:PT5M}", fixedDelayString = "${moderation.refresh-interval:PT5M}")
+    public void scheduledRefresh() {
+        requestRefresh();
+    }
+
+    /**
+     * 违禁词变更后调用：本节点后台重建词典，并通知其他节点重建
+     */
+    public void publishDictionaryChange() {
+        requestRefresh();
+        try {
+            redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(
+                    CHANGED_CHANNEL.getBytes(StandardCharsets.UTF_8), nodeId.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            // 其他节点在下一次定时重建时更新
+            log.error("广播敏感词词典变更失败", e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        if (!nodeId.equals(new String(message.getBody(), StandardCharsets.UTF_8))) {
+            requestRefresh();
+        }
+    }
+
+    /**
+     * 提交一次后台重建，已有重建在排队时不重复提交
+     */
+    private void requestRefresh() {
+        if (refreshPending.compareAndSet(false, true)) {
+            refresher.execute(() -> {
+                // 先清除标记，重建期间到达的变更会再触发一次重建
+                refreshPending.set(false);
+                reload();
+            });
+        }
+    }
+
+    /**
+     * 从数据库加载并替换词典快照，失败时保留旧快照
+     */
+    private synchronized void reload() {
+        try {
+            Dictionary loaded = Dictionary.build(bannedWordMapper.selectActiveWordsWithCategory());
+            dictionary = loaded;
+            log.info("敏感词词典已刷新，共 {} 个词", loaded.words().length);
+        } catch (Exception e) {
+            log.error("刷新敏感词词典失败", e);
+        }
+    }
+
+    /**
+     * 当前词典快照；启动时加载失败的情况下由调用线程同步加载
+     */
+    private Dictionary dictionary() {
+        Dictionary current = dictionary;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (dictionary == null) {
+                reload();
+            }
+            return dictionary != null ? dictionary : EMPTY;
+        }
     }
 
     /**
@@ -53,18 +255,14 @@ public class ModerationService {
             return null;
         }
 
-        // 转换为小写并移除特殊字符（用于检测变体）
-        String normalizedText = normalizeText(text);
-        
-        // 检查是否包含敏感词
-        for (String word : SENSITIVE_WORDS) {
-            if (normalizedText.contains(word.toLowerCase())) {
-                log.warn("检测到敏感词: {} 在文本中: {}", word, text);
-                return word;
-            }
+        Dictionary dict = dictionary();
+        int[] hits = hits(dict, TextNormalizer.normalize(text));
+        if (hits.length == 0) {
+            return null;
         }
-
-        return null;
+        String word = dict.words()[hits[0]];
+        log.warn("检测到敏感词: {}（{}） 在文本中: {}", word, dict.categories()[hits[0]], text);
+        return word;
     }
 
     /**
@@ -80,64 +278,186 @@ public class ModerationService {
     }
 
     /**
-     * 过滤敏感词（用*替换）
+     * 过滤敏感词（用*替换，变体中间的分隔符一起替换）
      * @param text 原始文本
-     * @return 过滤后的文本
+     * @return 过滤后的文本，没有敏感词时返回原字符串
      */
     public String filterSensitiveWords(String text) {
         if (text == null || text.isBlank()) {
             return text;
         }
 
-        String result = text;
-        String normalizedText = normalizeText(text);
-        
-        for (String word : SENSITIVE_WORDS) {
-            if (normalizedText.contains(word.toLowerCase())) {
-                // 使用正则表达式替换（不区分大小写）
-                Pattern pattern = Pattern.compile(Pattern.quote(word), Pattern.CASE_INSENSITIVE);
-                result = pattern.matcher(result).replaceAll("*".repeat(word.length()));
+        TextNormalizer.Normalized normalized = TextNormalizer.normalize(text);
+        int[] hits = hits(dictionary(), normalized);
+        if (hits.length == 0) {
+            return text;
+        }
+        char[] masked = text.toCharArray();
+        for (int h = 0; h < hits.length; h += 3) {
+            Arrays.fill(masked, normalized.originalStart(hits[h + 1]), normalized.originalEnd(hits[h + 2]), '*');
+        }
+        return new String(masked);
+    }
+
+    /**
+     * 审核单条文本：所有命中（按结束位置排序）和屏蔽后的文本
+     */
+    public Verdict moderate(String text) {
+        return moderate(dictionary(), text);
+    }
+
+    /**
+     * 批量审核，结果与输入一一对应；整批使用同一个词典快照，
+     * 条数较多时在有界的 ForkJoinPool 中并行执行
+     * @throws IllegalArgumentException 超过单批条数上限
+     */
+    public List<Verdict> moderateBatch(List<String> texts) {
+        if (texts.size() > batchMaxSize) {
+            throw new IllegalArgumentException("单批最多审核 " + batchMaxSize + " 条文本");
+        }
+        Dictionary dict = dictionary();
+        if (texts.size() < PARALLEL_THRESHOLD) {
+            return texts.stream().map(text -> moderate(dict, text)).toList();
+        }
+        // 在自定义 ForkJoinPool 中执行的并行流使用该线程池，不占用公共池
+        return batchPool.submit(() -> texts.parallelStream().map(text -> moderate(dict, text)).toList()).join();
+    }
+
+    private Verdict moderate(Dictionary dict, String text) {
+        if (text == null || text.isBlank()) {
+            return new Verdict(true, List.of(), text);
+        }
+
+        TextNormalizer.Normalized normalized = TextNormalizer.normalize(text);
+        int[] hits = hits(dict, normalized);
+        if (hits.length == 0) {
+            return new Verdict(true, List.of(), text);
+        }
+        List<Match> matches = new ArrayList<>(hits.length / 3);
+        char[] masked = text.toCharArray();
+        for (int h = 0; h < hits.length; h += 3) {
+            int from = normalized.originalStart(hits[h + 1]);
+            int to = normalized.originalEnd(hits[h + 2]);
+            matches.add(new Match(dict.words()[hits[h]], dict.categories()[hits[h]], from, to));
+            Arrays.fill(masked, from, to, '*');
+        }
+        return new Verdict(false, matches, new String(masked));
+    }
+
+    /**
+     * 标准化文本的命中位置：先查本节点缓存，再查Redis（开启共享且文本较长时），都没有时扫描并回填
+     */
+    private int[] hits(Dictionary dict, TextNormalizer.Normalized normalized) {
+        if (verdictCache == null) {
+            return scan(dict, normalized);
+        }
+        String text = normalized.toString();
+        CachedHits cached = verdictCache.getIfPresent(text);
+        // 词典版本同样是64位哈希，不同词典碰撞时旧的词下标可能越界
+        if (cached != null && cached.version() == dict.version() && validHits(cached.hits(), dict, text.length())) {
+            return cached.hits();
+        }
+
+        int[] hits = null;
+        String sharedKey = null;
+        if (shareVerdicts && normalized.length() >= shareMinLength) {
+            sharedKey = VERDICT_PREFIX + Long.toHexString(dict.version()) + ":" + Long.toHexString(normalized.hash64());
+            hits = decodeHits(cacheService.get(sharedKey, String.class), dict, normalized.length());
+        }
+        if (hits == null) {
+            hits = scan(dict, normalized);
+            if (sharedKey != null) {
+                cacheService.backfill(sharedKey, encodeHits(hits), shareTtlSeconds);
             }
         }
+        verdictCache.put(text, new CachedHits(dict.version(), hits));
+        return hits;
+    }
 
-        return result;
+    private static int[] scan(Dictionary dict, TextNormalizer.Normalized normalized) {
+        HitCollector collector = new HitCollector();
+        dict.automaton().forEachMatch(normalized, collector);
+        return collector.toArray();
     }
 
     /**
-     * 标准化文本（移除特殊字符，转换为小写）
-     * @param text 原始文本
-     * @return 标准化后的文本
+     * 命中位置编码为 "词下标:起始:结束,..."，没有命中时为 "-"
      */
-    private String normalizeText(String text) {
-        String normalized = text.toLowerCase();
-        // 移除常见变体字符
-        for (Map.Entry<String, String> entry : VARIANT_MAP.entrySet()) {
-            normalized = normalized.replace(entry.getKey(), entry.getValue());
+    private static String encodeHits(int[] hits) {
+        if (hits.length == 0) {
+            return "-";
+        }
+        StringBuilder encoded = new StringBuilder();
+        for (int h = 0; h < hits.length; h += 3) {
+            if (h > 0) {
+                encoded.append(',');
+            }
+            encoded.append(hits[h]).append(':').append(hits[h + 1]).append(':').append(hits[h + 2]);
         }
-        return normalized;
+        return encoded.toString();
     }
 
     /**
-     * 添加敏感词（动态扩展）
-     * @param word 敏感词
+     * 解码共享缓存中的命中位置，内容不合法时返回null（按未命中处理）
+     * 64位哈希碰撞或被篡改的值可能带有超出文本长度的位置，映射回原文前必须检查
+     * @param length 标准化文本的长度
      */
-    public void addSensitiveWord(String word) {
-        if (word != null && !word.isBlank()) {
-            SENSITIVE_WORDS.add(word.toLowerCase().trim());
-            log.info("添加敏感词: {}", word);
+    private static int[] decodeHits(String encoded, Dictionary dict, int length) {
+        if (encoded == null) {
+            return null;
+        }
+        if (encoded.equals("-")) {
+            return NO_HITS;
+        }
+        try {
+            String[] parts = encoded.split("[,:]");
+            if (parts.length % 3 != 0) {
+                return null;
+            }
+            int[] hits = new int[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                hits[i] = Integer.parseInt(parts[i]);
+            }
+            return validHits(hits, dict, length) ? hits : null;
+        } catch (NumberFormatException e) {
+            return null;
         }
     }
 
     /**
-     * 移除敏感词
-     * @param word 敏感词
+     * 命中位置是否都在词典和文本范围内
+     * @param length 标准化文本的长度
      */
-    public void removeSensitiveWord(String word) {
-        if (word != null) {
-            SENSITIVE_WORDS.remove(word.toLowerCase().trim());
-            log.info("移除敏感词: {}", word);
+    private static boolean validHits(int[] hits, Dictionary dict, int length) {
+        for (int h = 0; h < hits.length; h += 3) {
+            if (hits[h] < 0 || hits[h] >= dict.words().length
+                    || hits[h + 1] < 0 || hits[h + 1] >= hits[h + 2] || hits[h + 2] > length) {
+                return false;
+            }
         }
+        return true;
     }
-}
 
+    /**
+     * 收集命中位置（词下标, 起始, 结束）
+     */
+    private static final class HitCollector implements AhoCorasick.MatchHandler {
+        private int[] hits = NO_HITS;
+        private int size;
 
+        @Override
+        public boolean onMatch(int start, int end, int wordIndex) {
+            if (size + 3 > hits.length) {
+                hits = Arrays.copyOf(hits, Math.max(hits.length * 2, 6));
+            }
+            hits[size++] = wordIndex;
+            hits[size++] = start;
+            hits[size++] = end;
+            return true;
+        }
+
+        int[] toArray() {
+            return size == 0 ? NO_HITS : Arrays.copyOf(hits, size);
+        }
+    }
+}
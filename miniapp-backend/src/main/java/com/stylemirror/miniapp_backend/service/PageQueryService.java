@@ -0,0 +1,151 @@
+package com.stylemirror.miniapp_backend.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.segments.MergeSegments;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.stylemirror.miniapp_backend.common.CountMode;
+import com.stylemirror.miniapp_backend.common.PageResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 分页查询服务
+ * 按 CountMode 决定总数的获取方式，避免每次分页都执行 COUNT(*)
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PageQueryService {
+    private final CacheService cacheService;
+    private final JdbcTemplate jdbcTemplate;
+
+    // 精确总数缓存时间（秒）
+    private static final long COUNT_EXPIRE_TIME = 60;
+    // 表统计估算值缓存时间（秒）
+    private static final long APPROXIMATE_EXPIRE_TIME = 300;
+    private static final TypeReference<Long> LONG_TYPE = new TypeReference<>() {};
+
+    /**
+     * 分页查询
+     * @param entityClass 实体类型（用于获取表名）
+     * @param page 页码（与原有接口一致，传给MyBatis-Plus的current）
+     * @param mode 总数统计方式
+     */
+    public <T> PageResponse<T> selectPage(BaseMapper<T> mapper, Class<T> entityClass, QueryWrapper<T> wrapper,
+                                          int page, int size, CountMode mode) {
+        CountMode countMode = mode != null ? mode : CountMode.EXACT;
+        switch (countMode) {
+            case NONE:
+                return selectWithoutCount(mapper, wrapper, page, size);
+            case CACHED:
+                return PageResponse.of(selectRecords(mapper, wrapper, page, size), page, size,
+                        cachedCount(mapper, entityClass, wrapper));
+            case APPROXIMATE:
+                if (wrapper.isEmptyOfWhere()) {
+                    Long estimate = approximateCount(entityClass);
+                    if (estimate != null) {
+                        return PageResponse.ofApproximate(selectRecords(mapper, wrapper, page, size), page, size, estimate);
+                    }
+                }
+                // 有筛选条件（或统计信息不可用）时无法估算，按CACHED处理，见 CountMode.APPROXIMATE
+                log.debug("APPROXIMATE计数按CACHED处理: table={}", tableName(entityClass));
+                return PageResponse.of(selectRecords(mapper, wrapper, page, size), page, size,
+                        cachedCount(mapper, entityClass, wrapper));
+            default:
+                Page<T> result = mapper.selectPage(new Page<>(page, size), wrapper);
+                return PageResponse.of(result.getRecords(), (int) result.getCurrent(), (int) result.getSize(), result.getTotal());
+        }
+    }
+
+    /**
+     * 只查当前页数据，不执行COUNT
+     */
+    private <T> List<T> selectRecords(BaseMapper<T> mapper, QueryWrapper<T> wrapper, int page, int size) {
+        return mapper.selectPage(new Page<>(page, size, false), wrapper).getRecords();
+    }
+
+    /**
+     * 多查一条判断是否有下一页
+     */
+    private <T> PageResponse<T> selectWithoutCount(BaseMapper<T> mapper, QueryWrapper<T> wrapper, int page, int size) {
+        // 与MyBatis-Plus分页插件的偏移量计算保持一致（current小于1时按第一页处理）
+        long offset = (long) Math.max(page - 1, 0) * size;
+        wrapper.last("LIMIT " + offset + ", " + (size + 1));
+        List<T> records = mapper.selectList(wrapper);
+        boolean hasNext = records.size() > size;
+        if (hasNext) {
+            records = records.subList(0, size);
+        }
+        return PageResponse.withoutTotal(records, page, size, hasNext);
+    }
+
+    /**
+     * 按表名和查询条件签名缓存精确总数
+     */
+    private <T> long cachedCount(BaseMapper<T> mapper, Class<T> entityClass, QueryWrapper<T> wrapper) {
+        String key = cacheService.getCountKey(tableName(entityClass), signature(wrapper));
+        Long cached = cacheService.get(key, LONG_TYPE);
+        if (cached != null) {
+            return cached;
+        }
+        long total = mapper.selectCount(wrapper);
+        cacheService.backfill(key, total, COUNT_EXPIRE_TIME);
+        return total;
+    }
+
+    /**
+     * 从 information_schema 读取InnoDB表行数估算值
+     */
+    private Long approximateCount(Class<?> entityClass) {
+        String table = tableName(entityClass);
+        String key = cacheService.getCountKey(table, "approx");
+        Long cached = cacheService.get(key, LONG_TYPE);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            Long estimate = jdbcTemplate.queryForObject(
+                    "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?",
+                    Long.class, table);
+            if (estimate != null) {
+                cacheService.backfill(key, estimate, APPROXIMATE_EXPIRE_TIME);
+            }
+            return estimate;
+        } catch (Exception e) {
+            log.warn("读取表统计信息失败，退化为精确计数: table={}", table, e);
+            return null;
+        }
+    }
+
+    private String tableName(Class<?> entityClass) {
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(entityClass);
+        return tableInfo != null ? tableInfo.getTableName() : entityClass.getSimpleName();
+    }
+
+    /**
+     * 查询条件签名：WHERE/GROUP BY/HAVING片段 + 参数值（不含排序，不同排序共用同一个总数）
+     */
+    private String signature(QueryWrapper<?> wrapper) {
+        MergeSegments segments = wrapper.getExpression();
+        StringBuilder sb = new StringBuilder()
+                .append(segments.getNormal().getSqlSegment())
+                .append('|').append(segments.getGroupBy().getSqlSegment())
+                .append('|').append(segments.getHaving().getSqlSegment());
+        for (Map.Entry<String, Object> entry : new TreeMap<>(wrapper.getParamNameValuePairs()).entrySet()) {
+            sb.append('|').append(entry.getKey()).append('=').append(entry.getValue());
+        }
+        return DigestUtils.md5DigestAsHex(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
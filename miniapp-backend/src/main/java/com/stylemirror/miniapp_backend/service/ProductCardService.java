@@ -0,0 +1,96 @@
+package com.stylemirror.miniapp_backend.service;
+
+import com.stylemirror.miniapp_backend.domain.Category;
+import com.stylemirror.miniapp_backend.domain.Product;
+import com.stylemirror.miniapp_backend.domain.User;
+import com.stylemirror.miniapp_backend.dto.ProductCard;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * 商品卡片服务
+ * 卡片与商品缓存并列存放（product:card:{id}），商品写操作提交后删除，下次读取时重新组装。
+ * 卡片按分类和卖家打标签，分类名称、卖家资料变更时按标签失效
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductCardService {
+    private final CacheService cacheService;
+    private final ProductService productService;
+    private final UserService userService;
+    private final CategoryService categoryService;
+
+    // 卡片过期时间（秒）
+    private static final long CARD_EXPIRE_TIME = 600;
+
+    /**
+     * 根据商品ID获取卡片
+     */
+    public Optional<ProductCard> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(findByIds(List.of(id)).get(id));
+    }
+
+    /**
+     * 批量获取卡片：一次MGET，未命中的商品、卖家、分类各批量查询一次
+     * @return 商品ID -> 卡片（按传入ID顺序，不存在的商品不包含在内）
+     */
+    public Map<Long, ProductCard> findByIds(Collection<Long> ids) {
+        return cacheService.multiGetOrLoad(ids, cacheService::getProductCardKey, ProductCard.class,
+                missing -> assemble(new ArrayList<>(productService.findByIds(missing).values())),
+                ProductCard::getId, CARD_EXPIRE_TIME, this::tags);
+    }
+
+    /**
+     * 已查出的商品（如分页结果）转换为卡片，未命中缓存的直接用传入商品组装
+     */
+    public List<ProductCard> toCards(List<Product> products) {
+        Map<Long, Product> byId = new LinkedHashMap<>();
+        for (Product product : products) {
+            byId.putIfAbsent(product.getId(), product);
+        }
+        Map<Long, ProductCard> cards = cacheService.multiGetOrLoad(byId.keySet(), cacheService::getProductCardKey,
+                ProductCard.class, missing -> assemble(missing.stream().map(byId::get).toList()),
+                ProductCard::getId, CARD_EXPIRE_TIME, this::tags);
+        return products.stream()
+                .map(product -> cards.get(product.getId()))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private List<String> tags(ProductCard card) {
+        List<String> tags = new ArrayList<>(2);
+        if (card.getCategoryId() != null) {
+            tags.add(cacheService.getCategoryTag(card.getCategoryId()));
+        }
+        if (card.getSellerId() != null) {
+            tags.add(cacheService.getSellerTag(card.getSellerId()));
+        }
+        return tags;
+    }
+
+    private List<ProductCard> assemble(List<Product> products) {
+        Map<Long, User> sellers = userService.findByIds(products.stream().map(Product::getSellerId).toList());
+        Map<Long, Category> categories = categoryService.findByIds(products.stream().map(Product::getCategoryId).toList());
+        List<ProductCard> cards = new ArrayList<>(products.size());
+        for (Product product : products) {
+            cards.add(ProductCard.of(product,
+                    product.getSellerId() != null ? sellers.get(product.getSellerId()) : null,
+                    product.getCategoryId() != null ? categories.get(product.getCategoryId()) : null));
+        }
+        log.debug("组装商品卡片: {}", cards.size());
+        return cards;
+    }
+}
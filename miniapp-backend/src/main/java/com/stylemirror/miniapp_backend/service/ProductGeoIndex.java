@@ -0,0 +1,401 @@
+package com.stylemirror.miniapp_backend.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.stylemirror.miniapp_backend.domain.Product;
+import com.stylemirror.miniapp_backend.repository.ProductMapper;
+import com.stylemirror.miniapp_backend.util.GeoUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * 附近商品的内存网格索引
+ * 按固定经纬度网格划分已发布且带坐标的商品，查询时只扫描外接矩形覆盖的网格，
+ * 再用Haversine精确过滤，避免每次请求遍历全部商品。
+ * 写操作所在节点直接更新索引，并通过Redis发布订阅广播商品ID，其他节点从数据库重新加载；
+ * 另外定时全量重建，兜底漏收的广播
+ */
+@Service
+@Slf4j
+public class ProductGeoIndex implements MessageListener {
+    // 变更广播频道，消息格式：节点ID|商品ID
+    private static final String CHANGED_CHANNEL = "geo:index:changed";
+
+    private final ProductMapper productMapper;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // 网格边长（度），约2.2公里，默认3公里半径只需扫描3~4个网格
+    private static final double CELL_DEGREES = 0.02;
+
+    // 网格Key -> 商品ID集合
+    private final Map<Long, Set<Long>> cells = new HashMap<>();
+    // 商品ID -> 已索引商品
+    private final Map<Long, Product> products = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // 全量重建期间发生变更的商品，重建完成后重新加载，避免被重建读到的旧数据覆盖
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean rebuilding = false;
+
+    private volatile boolean ready = false;
+
+    /**
+     * 附近商品命中结果
+     */
+    public record Hit(Product product, double distanceKm) {}
+
+    /**
+     * 地图聚合点（只有一个商品时带上商品ID，便于直接打点）
+     */
+    public record Cluster(double latitude, double longitude, int count, Long productId) {}
+
+    public ProductGeoIndex(
+            ProductMapper productMapper,
+            RedisTemplate<String, Object> redisTemplate,
+            RedisMessageListenerContainer listenerContainer) {
+        this.productMapper = productMapper;
+        this.redisTemplate = redisTemplate;
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANGED_CHANNEL));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            // 首次查询时会再次尝试构建
+            log.error("构建附近商品索引失败", e);
+        }
+    }
+
+    /**
+     * 定时全量重建（默认每10分钟）
+     */
+    @Scheduled(initialDelayString = "${product-index.rebuild-interval:PT10M}", fixedDelayString = "${product-index.rebuild-interval:PT10M}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("定时重建附近商品索引失败", e);
+        }
+    }
+
+    /**
+     * 全量重建索引
+     */
+    public synchronized void rebuild() {
+        rebuilding = true;
+        changedDuringRebuild.clear();
+        QueryWrapper<Product> wrapper = new QueryWrapper<>();
+        wrapper.eq("status", "PUBLISHED");
+        wrapper.isNotNull("latitude");
+        wrapper.isNotNull("longitude");
+        List<Product> published = productMapper.selectList(wrapper);
+
+        lock.writeLock().lock();
+        try {
+            cells.clear();
+            products.clear();
+            for (Product product : published) {
+                addProduct(product);
+            }
+            ready = true;
+        } finally {
+            rebuilding = false;
+            lock.writeLock().unlock();
+        }
+        for (Long productId : changedDuringRebuild) {
+            reload(productId);
+        }
+        changedDuringRebuild.clear();
+        log.info("附近商品索引构建完成，商品数: {}, 网格数: {}", published.size(), cells.size());
+    }
+
+    /**
+     * 增量更新：已发布且带坐标的商品写入索引，否则从索引移除，并通知其他节点
+     */
+    public void upsert(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        upsertLocal(product);
+        try {
+            String body = nodeId + "|" + product.getId();
+            redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(
+                    CHANGED_CHANNEL.getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            // 其他节点在下一次定时重建时更新
+            log.error("广播附近商品索引变更失败: {}", product.getId(), e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf('|');
+        if (separator < 0 || body.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        try {
+            reload(Long.valueOf(body.substring(separator + 1)));
+        } catch (Exception e) {
+            // 定时全量重建时修正
+            log.error("处理附近商品索引变更广播失败: {}", body, e);
+        }
+    }
+
+    /**
+     * 从数据库重新加载单个商品，不存在时从索引移除
+     */
+    private void reload(Long productId) {
+        Product product = productMapper.selectById(productId);
+        if (product != null) {
+            upsertLocal(product);
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeProduct(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void upsertLocal(Product product) {
+        if (rebuilding) {
+            changedDuringRebuild.add(product.getId());
+        }
+        // 保存副本，避免调用方后续修改实体影响索引
+        Product snapshot = new Product();
+        BeanUtils.copyProperties(product, snapshot);
+        lock.writeLock().lock();
+        try {
+            removeProduct(product.getId());
+            if ("PUBLISHED".equals(snapshot.getStatus())
+                    && snapshot.getLatitude() != null && snapshot.getLongitude() != null) {
+                addProduct(snapshot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 查询半径内的商品，按距离升序
+     */
+    public List<Hit> withinRadius(double lat, double lng, double radiusKm) {
+        ensureReady();
+        GeoUtils.BoundingBox box = GeoUtils.boundingBox(lat, lng, radiusKm);
+        List<Hit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            forEachInBox(box, product -> {
+                double distance = GeoUtils.distanceKm(lat, lng, product.getLatitude(), product.getLongitude());
+                if (distance <= radiusKm) {
+                    hits.add(new Hit(product, distance));
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        hits.sort(Comparator.comparingDouble(Hit::distanceKm));
+        return hits;
+    }
+
+    /**
+     * 查询距离最近的k个商品，按距离升序
+     * 从所在网格开始逐圈向外扩展，当下一圈的最近可能距离已超过当前第k近的距离时停止
+     */
+    public List<Hit> nearest(double lat, double lng, int k) {
+        ensureReady();
+        if (k <= 0) {
+            return List.of();
+        }
+        // 大顶堆，堆顶是当前候选中最远的
+        PriorityQueue<Hit> heap = new PriorityQueue<>(Comparator.comparingDouble(Hit::distanceKm).reversed());
+        lock.readLock().lock();
+        try {
+            long centerLat = cellIndex(lat);
+            long centerLng = cellIndex(lng);
+            int visited = 0;
+            for (long ring = 0; visited < products.size(); ring++) {
+                // 一圈网格在地面上的最小宽度（公里），按已扫描范围内离赤道最远的纬度计算
+                double ringWidthKm = CELL_DEGREES * GeoUtils.KM_PER_DEGREE_LAT
+                        * Math.max(Math.cos(Math.toRadians(Math.min(Math.abs(lat) + ring * CELL_DEGREES, 90.0))), 1e-6);
+                if (heap.size() >= k && ring > 0 && (ring - 1) * ringWidthKm > heap.peek().distanceKm()) {
+                    break;
+                }
+                long side = 2 * ring + 1;
+                if (side * side > (long) cells.size() * 4) {
+                    // 商品分布稀疏，逐圈扩展不如直接扫描全部商品
+                    heap.clear();
+                    for (Product product : products.values()) {
+                        offer(heap, k, product, lat, lng);
+                    }
+                    break;
+                }
+                for (long latIdx = centerLat - ring; latIdx <= centerLat + ring; latIdx++) {
+                    boolean edgeRow = latIdx == centerLat - ring || latIdx == centerLat + ring;
+                    long step = edgeRow || ring == 0 ? 1 : 2 * ring;
+                    for (long lngIdx = centerLng - ring; lngIdx <= centerLng + ring; lngIdx += step) {
+                        Set<Long> ids = cells.get(cellKey(latIdx, lngIdx));
+                        if (ids == null) {
+                            continue;
+                        }
+                        for (Long id : ids) {
+                            offer(heap, k, products.get(id), lat, lng);
+                            visited++;
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Hit> hits = new ArrayList<>(heap);
+        hits.sort(Comparator.comparingDouble(Hit::distanceKm));
+        return hits;
+    }
+
+    /**
+     * 地图聚合：按缩放级别对应的网格统计可视区域内的商品数量和质心
+     * @param zoom 地图缩放级别（3~20），级别越小网格越大
+     */
+    public List<Cluster> clusters(GeoUtils.BoundingBox viewport, int zoom) {
+        ensureReady();
+        int level = Math.min(Math.max(zoom, 3), 20);
+        // 256像素瓦片宽度的1/4作为聚合网格，约64像素一个聚合点
+        double clusterDegrees = 360.0 / (1L << level) / 4;
+        Map<Long, double[]> groups = new HashMap<>();
+        Map<Long, Long> singles = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            forEachInBox(viewport, product -> {
+                long key = cellKey((long) Math.floor(product.getLatitude() / clusterDegrees),
+                        (long) Math.floor(product.getLongitude() / clusterDegrees));
+                double[] acc = groups.computeIfAbsent(key, k -> new double[3]);
+                acc[0] += product.getLatitude();
+                acc[1] += product.getLongitude();
+                acc[2]++;
+                singles.put(key, product.getId());
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Cluster> result = new ArrayList<>(groups.size());
+        groups.forEach((key, acc) -> {
+            int count = (int) acc[2];
+            result.add(new Cluster(acc[0] / count, acc[1] / count, count, count == 1 ? singles.get(key) : null));
+        });
+        result.sort(Comparator.comparingInt(Cluster::count).reversed());
+        return result;
+    }
+
+    /**
+     * 遍历矩形内的商品：覆盖网格数少于非空网格数时按网格查找，否则扫描全部商品
+     */
+    private void forEachInBox(GeoUtils.BoundingBox box, Consumer<Product> consumer) {
+        long minLatIdx = cellIndex(box.minLat());
+        long maxLatIdx = cellIndex(box.maxLat());
+        long minLngIdx = cellIndex(box.minLng());
+        long maxLngIdx = cellIndex(box.maxLng());
+        long cellCount = (maxLatIdx - minLatIdx + 1) * (maxLngIdx - minLngIdx + 1);
+        if (cellCount > cells.size()) {
+            for (Product product : products.values()) {
+                if (box.contains(product.getLatitude(), product.getLongitude())) {
+                    consumer.accept(product);
+                }
+            }
+            return;
+        }
+        for (long latIdx = minLatIdx; latIdx <= maxLatIdx; latIdx++) {
+            for (long lngIdx = minLngIdx; lngIdx <= maxLngIdx; lngIdx++) {
+                Set<Long> ids = cells.get(cellKey(latIdx, lngIdx));
+                if (ids == null) {
+                    continue;
+                }
+                for (Long id : ids) {
+                    Product product = products.get(id);
+                    // 边缘网格只有部分落在矩形内，需要再用矩形过滤
+                    if (box.contains(product.getLatitude(), product.getLongitude())) {
+                        consumer.accept(product);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void offer(PriorityQueue<Hit> heap, int k, Product product, double lat, double lng) {
+        double distance = GeoUtils.distanceKm(lat, lng, product.getLatitude(), product.getLongitude());
+        if (heap.size() < k) {
+            heap.add(new Hit(product, distance));
+        } else if (distance < heap.peek().distanceKm()) {
+            heap.poll();
+            heap.add(new Hit(product, distance));
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return products.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ensureReady() {
+        if (!ready) {
+            synchronized (this) {
+                if (!ready) {
+                    rebuild();
+                }
+            }
+        }
+    }
+
+    private void addProduct(Product product) {
+        long key = cellKey(cellIndex(product.getLatitude()), cellIndex(product.getLongitude()));
+        cells.computeIfAbsent(key, k -> new HashSet<>()).add(product.getId());
+        products.put(product.getId(), product);
+    }
+
+    private void removeProduct(Long productId) {
+        Product old = products.remove(productId);
+        if (old == null) {
+            return;
+        }
+        long key = cellKey(cellIndex(old.getLatitude()), cellIndex(old.getLongitude()));
+        Set<Long> ids = cells.get(key);
+        if (ids != null) {
+            ids.remove(productId);
+            if (ids.isEmpty()) {
+                cells.remove(key);
+            }
+        }
+    }
+
+    private static long cellIndex(double degrees) {
+        return (long) Math.floor(degrees / CELL_DEGREES);
+    }
+
+    private static long cellKey(long latIdx, long lngIdx) {
+        return (latIdx << 32) | (lngIdx & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,482 @@
+package com.stylemirror.miniapp_backend.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.stylemirror.miniapp_backend.common.PageResponse;
+import com.stylemirror.miniapp_backend.domain.Category;
+import com.stylemirror.miniapp_backend.domain.Product;
+import com.stylemirror.miniapp_backend.repository.CategoryMapper;
+import com.stylemirror.miniapp_backend.repository.ProductMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 商品关键词搜索的内存倒排索引
+ * 对已发布商品的名称、描述、分类名称建立一元/二元（bigram）倒排表，
+ * 启动时全量构建，商品写操作时增量更新，搜索不再访问MySQL。
+ * 索引在每个节点的内存中：写操作所在节点直接更新，并通过Redis发布订阅广播商品ID（分类ID），
+ * 其他节点收到后从数据库重新加载；另外定时全量重建，兜底漏收的广播
+ */
+@Service
+@Slf4j
+public class ProductSearchIndex implements MessageListener {
+    // 变更广播频道，消息格式：节点ID|P（商品）或C（分类）|ID
+    private static final String CHANGED_CHANNEL = "search:index:changed";
+
+    private final ProductMapper productMapper;
+    private final CategoryMapper categoryMapper;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // 字段权重：名称 > 分类 > 描述
+    private static final double NAME_WEIGHT = 3.0;
+    private static final double CATEGORY_WEIGHT = 2.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+    // 新发布商品的加分上限，按30天半衰
+    private static final double RECENCY_WEIGHT = 0.5;
+    private static final double RECENCY_HALF_LIFE_DAYS = 30.0;
+
+    // gram -> 商品ID集合
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    // 商品ID -> 已索引文档
+    private final Map<Long, IndexedProduct> documents = new HashMap<>();
+    // 分类ID -> 分类名称
+    private final Map<Long, String> categoryNames = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // 全量重建期间发生变更的商品，重建完成后重新加载，避免被重建读到的旧数据覆盖
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean rebuilding = false;
+
+    private volatile boolean ready = false;
+    private volatile long lastBuildMillis = 0;
+    private volatile Instant lastBuildAt;
+    private final LongAdder queryCount = new LongAdder();
+    private final LongAdder queryNanos = new LongAdder();
+    private final AtomicLong maxQueryNanos = new AtomicLong();
+
+    /**
+     * 已索引的商品及其标准化字段
+     */
+    private record IndexedProduct(Product product, String name, String category, String description,
+                                  Set<String> grams) {}
+
+    /**
+     * 索引统计信息
+     */
+    public record Stats(boolean ready, int documents, int grams, long postings,
+                        long lastBuildMillis, Instant lastBuildAt,
+                        long queries, double avgQueryMicros, double maxQueryMicros) {}
+
+    public ProductSearchIndex(
+            ProductMapper productMapper,
+            CategoryMapper categoryMapper,
+            RedisTemplate<String, Object> redisTemplate,
+            RedisMessageListenerContainer listenerContainer) {
+        this.productMapper = productMapper;
+        this.categoryMapper = categoryMapper;
+        this.redisTemplate = redisTemplate;
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANGED_CHANNEL));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            // 构建失败时搜索回退到数据库
+            log.error("构建商品搜索索引失败", e);
+        }
+    }
+
+    /**
+     * 定时全量重建（默认每10分钟）
+     */
+    @Scheduled(initialDelayString = "${product-index.rebuild-interval:PT10M}", fixedDelayString = "${product-index.rebuild-interval:PT10M}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("定时重建商品搜索索引失败", e);
+        }
+    }
+
+    /**
+     * 全量重建索引
+     */
+    public synchronized Stats rebuild() {
+        long start = System.nanoTime();
+        rebuilding = true;
+        changedDuringRebuild.clear();
+        Map<Long, String> names = new HashMap<>();
+        for (Category category : categoryMapper.selectList(null)) {
+            names.put(category.getId(), category.getName());
+        }
+        QueryWrapper<Product> wrapper = new QueryWrapper<>();
+        wrapper.eq("status", "PUBLISHED");
+        List<Product> products = productMapper.selectList(wrapper);
+
+        lock.writeLock().lock();
+        try {
+            categoryNames.clear();
+            categoryNames.putAll(names);
+            postings.clear();
+            documents.clear();
+            for (Product product : products) {
+                addDocument(product);
+            }
+            ready = true;
+        } finally {
+            rebuilding = false;
+            lock.writeLock().unlock();
+        }
+        for (Long productId : changedDuringRebuild) {
+            reload(productId);
+        }
+        changedDuringRebuild.clear();
+        lastBuildMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        lastBuildAt = Instant.now();
+        log.info("商品搜索索引构建完成，商品数: {}, gram数: {}, 耗时: {}ms", products.size(), postings.size(), lastBuildMillis);
+        return stats();
+    }
+
+    /**
+     * 增量更新：已发布商品写入索引，其他状态从索引移除，并通知其他节点
+     */
+    public void upsert(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        upsertLocal(product);
+        publish("P", product.getId());
+    }
+
+    /**
+     * 从索引移除商品，并通知其他节点
+     */
+    public void remove(Long productId) {
+        removeLocal(productId);
+        publish("P", productId);
+    }
+
+    private void upsertLocal(Product product) {
+        if (rebuilding) {
+            changedDuringRebuild.add(product.getId());
+        }
+        if (product.getCategoryId() != null && !categoryNames.containsKey(product.getCategoryId())) {
+            Category category = categoryMapper.selectById(product.getCategoryId());
+            if (category != null) {
+                categoryNames.put(category.getId(), category.getName());
+            }
+        }
+        // 保存副本，避免调用方后续修改实体（如改写coverUrl）影响索引
+        Product snapshot = copyOf(product);
+        lock.writeLock().lock();
+        try {
+            removeDocument(product.getId());
+            if ("PUBLISHED".equals(snapshot.getStatus())) {
+                addDocument(snapshot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocal(Long productId) {
+        if (rebuilding) {
+            changedDuringRebuild.add(productId);
+        }
+        lock.writeLock().lock();
+        try {
+            removeDocument(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 分类名称变更后重建该分类下商品的索引，并通知其他节点
+     */
+    public void onCategoryChanged(Category category) {
+        if (category == null || category.getId() == null) {
+            return;
+        }
+        reindexCategory(category);
+        publish("C", category.getId());
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|");
+        if (parts.length != 3 || parts[0].equals(nodeId)) {
+            return;
+        }
+        try {
+            Long id = Long.valueOf(parts[2]);
+            if ("C".equals(parts[1])) {
+                Category category = categoryMapper.selectById(id);
+                if (category != null) {
+                    reindexCategory(category);
+                }
+            } else {
+                reload(id);
+            }
+        } catch (Exception e) {
+            // 定时全量重建时修正
+            log.error("处理商品搜索索引变更广播失败: {}", parts[2], e);
+        }
+    }
+
+    /**
+     * 从数据库重新加载单个商品
+     */
+    private void reload(Long productId) {
+        Product product = productMapper.selectById(productId);
+        if (product == null) {
+            removeLocal(productId);
+        } else {
+            upsertLocal(product);
+        }
+    }
+
+    private void publish(String type, Long id) {
+        try {
+            String body = nodeId + "|" + type + "|" + id;
+            redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(
+                    CHANGED_CHANNEL.getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            // 其他节点在下一次定时重建时更新
+            log.error("广播商品搜索索引变更失败: {}={}", type, id, e);
+        }
+    }
+
+    private void reindexCategory(Category category) {
+        categoryNames.put(category.getId(), category.getName());
+        lock.writeLock().lock();
+        try {
+            List<Product> affected = documents.values().stream()
+                    .map(IndexedProduct::product)
+                    .filter(p -> category.getId().equals(p.getCategoryId()))
+                    .toList();
+            for (Product product : affected) {
+                removeDocument(product.getId());
+                addDocument(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 关键词搜索，按匹配质量和发布时间排序
+     * @param page 页码（从0开始）
+     */
+    public PageResponse<Product> search(String keyword, int page, int size) {
+        long start = System.nanoTime();
+        try {
+            List<Product> hits = searchAll(keyword);
+            int from = Math.min(Math.max(page, 0) * size, hits.size());
+            int to = Math.min(from + size, hits.size());
+            // 返回副本，索引中的实体不交给调用方修改
+            List<Product> items = hits.subList(from, to).stream().map(ProductSearchIndex::copyOf).toList();
+            return PageResponse.of(new ArrayList<>(items), page, size, hits.size());
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            queryCount.increment();
+            queryNanos.add(elapsed);
+            maxQueryNanos.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+
+    private List<Product> searchAll(String keyword) {
+        String query = normalize(keyword);
+        lock.readLock().lock();
+        try {
+            if (query.isEmpty()) {
+                // 无关键词时按发布时间倒序返回全部
+                return documents.values().stream()
+                        .map(IndexedProduct::product)
+                        .sorted(Comparator.comparing(Product::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+                                .thenComparing(Product::getId, Comparator.reverseOrder()))
+                        .toList();
+            }
+            List<String> queryGrams = queryGrams(query);
+            Map<Long, Integer> matched = new HashMap<>();
+            for (String gram : queryGrams) {
+                Set<Long> ids = postings.get(gram);
+                if (ids != null) {
+                    for (Long id : ids) {
+                        matched.merge(id, 1, Integer::sum);
+                    }
+                }
+            }
+            // 至少命中一半的gram才算匹配
+            int minMatched = (queryGrams.size() + 1) / 2;
+            Instant now = Instant.now();
+            List<Map.Entry<Product, Double>> scored = new ArrayList<>();
+            for (Map.Entry<Long, Integer> entry : matched.entrySet()) {
+                if (entry.getValue() < minMatched) {
+                    continue;
+                }
+                IndexedProduct doc = documents.get(entry.getKey());
+                scored.add(Map.entry(doc.product(), score(doc, query, queryGrams, now)));
+            }
+            scored.sort(Map.Entry.<Product, Double>comparingByValue().reversed()
+                    .thenComparing(e -> e.getKey().getId(), Comparator.reverseOrder()));
+            return scored.stream().map(Map.Entry::getKey).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private double score(IndexedProduct doc, String query, List<String> queryGrams, Instant now) {
+        double score = NAME_WEIGHT * fieldScore(doc.name(), query, queryGrams)
+                + CATEGORY_WEIGHT * fieldScore(doc.category(), query, queryGrams)
+                + DESCRIPTION_WEIGHT * fieldScore(doc.description(), query, queryGrams);
+        Instant createdAt = doc.product().getCreatedAt();
+        if (createdAt != null) {
+            double ageDays = Math.max(0, Duration.between(createdAt, now).toHours() / 24.0);
+            score += RECENCY_WEIGHT * Math.pow(0.5, ageDays / RECENCY_HALF_LIFE_DAYS);
+        }
+        return score;
+    }
+
+    /**
+     * 字段得分：命中gram比例，完整包含关键词再加1分
+     */
+    private double fieldScore(String field, String query, List<String> queryGrams) {
+        if (field.isEmpty()) {
+            return 0;
+        }
+        if (field.contains(query)) {
+            return 2.0;
+        }
+        int hit = 0;
+        for (String gram : queryGrams) {
+            if (field.contains(gram)) {
+                hit++;
+            }
+        }
+        return (double) hit / queryGrams.size();
+    }
+
+    public Stats stats() {
+        lock.readLock().lock();
+        try {
+            long postingCount = 0;
+            for (Set<Long> ids : postings.values()) {
+                postingCount += ids.size();
+            }
+            long queries = queryCount.sum();
+            double avgMicros = queries == 0 ? 0 : queryNanos.sum() / 1000.0 / queries;
+            return new Stats(ready, documents.size(), postings.size(), postingCount,
+                    lastBuildMillis, lastBuildAt, queries, avgMicros, maxQueryNanos.get() / 1000.0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addDocument(Product product) {
+        String name = normalize(product.getName());
+        String category = normalize(product.getCategoryId() != null ? categoryNames.get(product.getCategoryId()) : null);
+        String description = normalize(product.getDescription());
+        Set<String> grams = new HashSet<>();
+        indexGrams(name, grams);
+        indexGrams(category, grams);
+        indexGrams(description, grams);
+        for (String gram : grams) {
+            postings.computeIfAbsent(gram, k -> new HashSet<>()).add(product.getId());
+        }
+        documents.put(product.getId(), new IndexedProduct(product, name, category, description, grams));
+    }
+
+    private void removeDocument(Long productId) {
+        IndexedProduct old = documents.remove(productId);
+        if (old == null) {
+            return;
+        }
+        for (String gram : old.grams()) {
+            Set<Long> ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(productId);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static Product copyOf(Product product) {
+        Product copy = new Product();
+        BeanUtils.copyProperties(product, copy);
+        return copy;
+    }
+
+    /**
+     * 文档按一元和二元gram入索引（单字查询依赖一元gram）
+     */
+    private static void indexGrams(String text, Set<String> grams) {
+        for (int i = 0; i < text.length(); i++) {
+            grams.add(text.substring(i, i + 1));
+            if (i + 1 < text.length()) {
+                grams.add(text.substring(i, i + 2));
+            }
+        }
+    }
+
+    /**
+     * 查询串切分为二元gram，单字查询使用一元gram
+     */
+    private static List<String> queryGrams(String query) {
+        if (query.length() == 1) {
+            return List.of(query);
+        }
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 1 < query.length(); i++) {
+            grams.add(query.substring(i, i + 2));
+        }
+        return new ArrayList<>(grams);
+    }
+
+    /**
+     * 标准化：全角转半角、转小写、只保留字母数字和汉字
+     */
+    static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '！' && c <= '～') {
+                c = (char) (c - 0xFEE0);
+            }
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -2,16 +2,27 @@ package com.stylemirror.miniapp_backend.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.stylemirror.miniapp_backend.common.CountMode;
+import com.stylemirror.miniapp_backend.common.CursorPageResponse;
 import com.stylemirror.miniapp_backend.common.PageResponse;
 import com.stylemirror.miniapp_backend.domain.Product;
 import com.stylemirror.miniapp_backend.repository.ProductMapper;
+import com.stylemirror.miniapp_backend.util.FulltextQuery;
+import com.stylemirror.miniapp_backend.util.SeekCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -24,6 +35,17 @@ import java.util.Optional;
 public class ProductService {
     private final ProductMapper productMapper;
     private final CacheService cacheService;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductGeoIndex productGeoIndex;
+    private final PageQueryService pageQueryService;
+    private final RenderedResponseCache renderedResponseCache;
+    private final ExistenceFilter existenceFilter;
+
+    // 信息流前几页走缓存（绝大部分流量集中在前2~3页）
+    private static final int FEED_CACHE_PAGES = 3;
+    // 商品缓存基础过期时间（秒），实际过期时间带随机抖动
+    private static final long PRODUCT_EXPIRE_TIME = 3600;
+    private static final TypeReference<PageResponse<Product>> PRODUCT_PAGE_TYPE = new TypeReference<>() {};
 
     /**
      * 查询所有商品
@@ -47,11 +69,41 @@ public class ProductService {
      * @return 分页响应
      */
     public PageResponse<Product> findPageForAdmin(int page, int size, String keyword, String status, Long categoryId) {
-        Page<Product> pageObj = new Page<>(page, size);
+        return findPageForAdmin(page, size, keyword, status, categoryId, CountMode.EXACT);
+    }
+
+    /**
+     * 分页查询商品列表（管理端使用，指定总数统计方式）
+     */
+    public PageResponse<Product> findPageForAdmin(int page, int size, String keyword, String status, Long categoryId,
+                                                  CountMode countMode) {
+        // 关键词优先走全文索引（idx_products_fulltext，ngram解析器）
+        String against = FulltextQuery.booleanQuery(keyword);
+        if (against != null) {
+            try {
+                return pageQueryService.selectPage(productMapper, Product.class,
+                        adminWrapper(keyword, against, status, categoryId), page, size, countMode);
+            } catch (DataAccessException e) {
+                // 全文索引缺失（迁移未执行）等情况回退到LIKE
+                log.warn("商品全文检索失败，回退LIKE查询: {}", e.getMessage());
+            }
+        }
+        return pageQueryService.selectPage(productMapper, Product.class,
+                adminWrapper(keyword, null, status, categoryId), page, size, countMode);
+    }
+
+    /**
+     * 管理端商品查询条件
+     * @param against 全文检索查询串（null表示使用LIKE匹配关键词）
+     */
+    private QueryWrapper<Product> adminWrapper(String keyword, String against, String status, Long categoryId) {
         QueryWrapper<Product> wrapper = new QueryWrapper<>();
         
         // 关键词搜索：商品名称或描述
-        if (StringUtils.hasText(keyword)) {
+        if (against != null) {
+            wrapper.apply("MATCH(name, description) AGAINST({0} IN BOOLEAN MODE)", against);
+        } else if (StringUtils.hasText(keyword)) {
+            // 关键词过短，ngram索引无法命中
             wrapper.and(w -> w.like("name", keyword)
                     .or()
                     .like("description", keyword));
@@ -67,11 +119,12 @@ public class ProductService {
             wrapper.eq("category_id", categoryId);
         }
         
-        // 按创建时间倒序
+        // 全文检索按相关度排序，再按创建时间倒序
+        if (against != null) {
+            wrapper.orderByDesc(FulltextQuery.matchExpression("name, description", against));
+        }
         wrapper.orderByDesc("created_at");
-        
-        Page<Product> result = productMapper.selectPage(pageObj, wrapper);
-        return PageResponse.of(result.getRecords(), (int) result.getCurrent(), (int) result.getSize(), result.getTotal());
+        return wrapper;
     }
 
     /**
@@ -82,26 +135,14 @@ public class ProductService {
      * @param sortOrder 排序方向：asc（升序）、desc（降序）
      */
     public PageResponse<Product> findAll(int page, int size, String sortBy, String sortOrder) {
-        Page<Product> pageObj = new Page<>(page, size);
-        QueryWrapper<Product> wrapper = new QueryWrapper<>();
-        
-        // 只查询已发布的商品
-        wrapper.eq("status", "PUBLISHED");
-        
-        // 设置排序 - 使用数据库字段名
-        if ("price".equals(sortBy)) {
-            if ("asc".equalsIgnoreCase(sortOrder)) {
-                wrapper.orderByAsc("price");
-            } else {
-                wrapper.orderByDesc("price");
-            }
-        } else {
-            // 默认按最新排序（created_at降序）
-            wrapper.orderByDesc("created_at");
-        }
-        
-        Page<Product> result = productMapper.selectPage(pageObj, wrapper);
-        return PageResponse.of(result.getRecords(), (int) result.getCurrent(), (int) result.getSize(), result.getTotal());
+        return findAll(page, size, sortBy, sortOrder, CountMode.EXACT);
+    }
+
+    /**
+     * 分页查询所有商品（指定总数统计方式）
+     */
+    public PageResponse<Product> findAll(int page, int size, String sortBy, String sortOrder, CountMode countMode) {
+        return findFeedPage(null, page, size, sortBy, sortOrder, countMode);
     }
 
     /**
@@ -111,6 +152,20 @@ public class ProductService {
         return findAll(page, size, "latest", "desc");
     }
 
+    /**
+     * 游标分页查询所有商品（小程序信息流使用，不执行COUNT）
+     * @param cursor 上一页返回的nextCursor，空字符串表示第一页
+     * @param size 每页数量
+     * @param sortBy 排序字段：latest（最新）、price（价格）
+     * @param sortOrder 排序方向：asc（升序）、desc（降序）
+     */
+    public CursorPageResponse<Product> findAllByCursor(String cursor, int size, String sortBy, String sortOrder) {
+        QueryWrapper<Product> wrapper = new QueryWrapper<>();
+        // 只查询已发布的商品
+        wrapper.eq("status", "PUBLISHED");
+        return seekPage(wrapper, cursor, size, sortBy, sortOrder);
+    }
+
     /**
      * 根据ID查询商品（带缓存）
      */
@@ -119,24 +174,32 @@ public class ProductService {
             return Optional.empty();
         }
 
-        // 先从缓存获取
-        String cacheKey = cacheService.getProductKey(id);
-        Product cachedProduct = cacheService.get(cacheKey, Product.class);
-        if (cachedProduct != null) {
-            log.debug("从缓存获取商品: ID={}", id);
-            return Optional.of(cachedProduct);
+        // 布隆过滤器判定不存在的ID（已删除或伪造）直接返回
+        if (!existenceFilter.mightContain(ExistenceFilter.PRODUCT, id)) {
+            return Optional.empty();
         }
 
-        // 缓存未命中，从数据库查询
-        Product product = productMapper.selectById(id);
-        if (product != null) {
-            // 写入缓存
-            cacheService.set(cacheKey, product);
+        // 缓存未命中时合并并发回源，只有一个请求查库
+        String cacheKey = cacheService.getProductKey(id);
+        Product product = cacheService.getOrLoad(cacheKey, Product.class, () -> {
             log.debug("从数据库获取商品并写入缓存: ID={}", id);
-        }
+            return productMapper.selectById(id);
+        }, PRODUCT_EXPIRE_TIME);
         return Optional.ofNullable(product);
     }
 
+    /**
+     * 批量查询商品（带缓存）：一次MGET，未命中的一次selectBatchIds
+     * @return 商品ID -> 商品（按传入ID顺序，不存在的商品不包含在内）
+     */
+    public Map<Long, Product> findByIds(Collection<Long> ids) {
+        List<Long> candidates = ids.stream()
+                .filter(id -> existenceFilter.mightContain(ExistenceFilter.PRODUCT, id))
+                .toList();
+        return cacheService.multiGetOrLoad(candidates, cacheService::getProductKey, Product.class,
+                productMapper::selectBatchIds, Product::getId);
+    }
+
     /**
      * 根据分类ID查询商品
      */
@@ -155,8 +218,43 @@ public class ProductService {
      * @param sortOrder 排序方向：asc（升序）、desc（降序）
      */
     public PageResponse<Product> findByCategoryId(Long categoryId, int page, int size, String sortBy, String sortOrder) {
+        return findByCategoryId(categoryId, page, size, sortBy, sortOrder, CountMode.EXACT);
+    }
+
+    /**
+     * 分页查询分类商品（指定总数统计方式）
+     */
+    public PageResponse<Product> findByCategoryId(Long categoryId, int page, int size, String sortBy, String sortOrder,
+                                                  CountMode countMode) {
+        return findFeedPage(categoryId, page, size, sortBy, sortOrder, countMode);
+    }
+
+    /**
+     * 信息流分页查询：前几页走缓存，其余直接查库
+     */
+    private PageResponse<Product> findFeedPage(Long categoryId, int page, int size, String sortBy, String sortOrder,
+                                               CountMode countMode) {
+        CountMode mode = countMode != null ? countMode : CountMode.EXACT;
+        if (page >= FEED_CACHE_PAGES) {
+            return queryFeedPage(categoryId, page, size, sortBy, sortOrder, mode);
+        }
+        String sort = "price".equals(sortBy)
+                ? ("asc".equalsIgnoreCase(sortOrder) ? "price:asc" : "price:desc")
+                : "latest";
+        // 不同统计方式返回的total不同，分开缓存
+        if (mode != CountMode.EXACT) {
+            sort = sort + ":" + mode.name().toLowerCase();
+        }
+        return cacheService.getFeedPage(categoryId, sort, page, size, PRODUCT_PAGE_TYPE,
+                () -> queryFeedPage(categoryId, page, size, sortBy, sortOrder, mode));
+    }
+
+    private PageResponse<Product> queryFeedPage(Long categoryId, int page, int size, String sortBy, String sortOrder,
+                                                CountMode countMode) {
         QueryWrapper<Product> wrapper = new QueryWrapper<>();
-        wrapper.eq("category_id", categoryId);
+        if (categoryId != null) {
+            wrapper.eq("category_id", categoryId);
+        }
         // 只查询已发布的商品
         wrapper.eq("status", "PUBLISHED");
         
@@ -172,9 +270,18 @@ public class ProductService {
             wrapper.orderByDesc("created_at");
         }
         
-        Page<Product> pageObj = new Page<>(page, size);
-        Page<Product> result = productMapper.selectPage(pageObj, wrapper);
-        return PageResponse.of(result.getRecords(), (int) result.getCurrent(), (int) result.getSize(), result.getTotal());
+        return pageQueryService.selectPage(productMapper, Product.class, wrapper, page, size, countMode);
+    }
+
+    /**
+     * 游标分页查询分类商品
+     */
+    public CursorPageResponse<Product> findByCategoryIdByCursor(Long categoryId, String cursor, int size, String sortBy, String sortOrder) {
+        QueryWrapper<Product> wrapper = new QueryWrapper<>();
+        wrapper.eq("category_id", categoryId);
+        // 只查询已发布的商品
+        wrapper.eq("status", "PUBLISHED");
+        return seekPage(wrapper, cursor, size, sortBy, sortOrder);
     }
 
     /**
@@ -199,6 +306,10 @@ public class ProductService {
      * 分页搜索商品
      */
     public PageResponse<Product> search(String keyword, int page, int size) {
+        // 优先走内存倒排索引，索引未就绪时回退到数据库
+        if (productSearchIndex.isReady()) {
+            return productSearchIndex.search(keyword, page, size);
+        }
         QueryWrapper<Product> wrapper = new QueryWrapper<>();
         if (StringUtils.hasText(keyword)) {
             wrapper.like("name", keyword);
@@ -211,16 +322,76 @@ public class ProductService {
         return PageResponse.of(result.getRecords(), (int) result.getCurrent(), (int) result.getSize(), result.getTotal());
     }
 
+    /**
+     * 游标分页搜索商品（按最新排序）
+     */
+    public CursorPageResponse<Product> searchByCursor(String keyword, String cursor, int size) {
+        QueryWrapper<Product> wrapper = new QueryWrapper<>();
+        if (StringUtils.hasText(keyword)) {
+            wrapper.like("name", keyword);
+        }
+        // 只查询已发布的商品
+        wrapper.eq("status", "PUBLISHED");
+        return seekPage(wrapper, cursor, size, "latest", "desc");
+    }
+
+    /**
+     * 按 (排序字段, id) 做 keyset 分页：WHERE (col, id) 在游标之后，LIMIT size+1 判断是否有下一页
+     * 最新排序走 idx_products_status_created 索引（InnoDB二级索引隐含主键id）
+     */
+    private CursorPageResponse<Product> seekPage(QueryWrapper<Product> wrapper, String cursor, int size,
+                                                 String sortBy, String sortOrder) {
+        int pageSize = Math.max(size, 1);
+        boolean byPrice = "price".equals(sortBy);
+        // 最新排序固定为created_at降序，与offset分页保持一致
+        boolean asc = byPrice && "asc".equalsIgnoreCase(sortOrder);
+        String column = byPrice ? "price" : "created_at";
+
+        SeekCursor after = SeekCursor.decode(cursor, byPrice ? SeekCursor.KEY_PRICE : SeekCursor.KEY_CREATED_AT);
+        if (after != null) {
+            Object value = byPrice ? after.price() : after.createdAt();
+            long lastId = after.id();
+            if (asc) {
+                wrapper.and(w -> w.gt(column, value).or(o -> o.eq(column, value).gt("id", lastId)));
+            } else {
+                wrapper.and(w -> w.lt(column, value).or(o -> o.eq(column, value).lt("id", lastId)));
+            }
+        }
+        if (asc) {
+            wrapper.orderByAsc(column, "id");
+        } else {
+            wrapper.orderByDesc(column, "id");
+        }
+        wrapper.last("LIMIT " + (pageSize + 1));
+
+        List<Product> records = new ArrayList<>(productMapper.selectList(wrapper));
+        String nextCursor = null;
+        if (records.size() > pageSize) {
+            records = new ArrayList<>(records.subList(0, pageSize));
+            Product last = records.get(pageSize - 1);
+            SeekCursor next = byPrice
+                    ? SeekCursor.ofPrice(last.getPrice(), last.getId())
+                    : SeekCursor.ofCreatedAt(last.getCreatedAt(), last.getId());
+            nextCursor = next.encode();
+        }
+        return CursorPageResponse.of(records, pageSize, nextCursor);
+    }
+
     /**
      * 保存商品（新增或更新，同步更新缓存）
      */
     @Transactional(rollbackFor = Exception.class)
     public Product save(Product product) {
         boolean isNew = product.getId() == null;
+        // 记录修改前的分类，分类变更时新旧分类的信息流都需要失效
+        Long previousCategoryId = isNew ? null
+                : findById(product.getId()).map(Product::getCategoryId).orElse(null);
         
         if (isNew) {
             productMapper.insert(product);
             log.info("新增商品，ID: {}, 名称: {}", product.getId(), product.getName());
+            existenceFilter.add(ExistenceFilter.PRODUCT, product.getId());
+            cacheService.clearMissing(cacheService.getProductKey(product.getId()));
         } else {
             productMapper.updateById(product);
             log.info("更新商品，ID: {}, 名称: {}", product.getId(), product.getName());
@@ -236,6 +407,7 @@ public class ProductService {
             cacheService.set(cacheKey, product);
             log.debug("更新商品缓存: ID={}", product.getId());
         }
+        syncAfterCommit(product, previousCategoryId);
         
         return product;
     }
@@ -254,12 +426,17 @@ public class ProductService {
      * 分页查询卖家商品
      */
     public PageResponse<Product> findBySellerId(Long sellerId, int page, int size) {
+        return findBySellerId(sellerId, page, size, CountMode.EXACT);
+    }
+
+    /**
+     * 分页查询卖家商品（指定总数统计方式）
+     */
+    public PageResponse<Product> findBySellerId(Long sellerId, int page, int size, CountMode countMode) {
         QueryWrapper<Product> wrapper = new QueryWrapper<>();
         wrapper.eq("seller_id", sellerId);  // 使用数据库字段名
         wrapper.orderByDesc("created_at");  // 使用数据库字段名
-        Page<Product> pageObj = new Page<>(page, size);
-        Page<Product> result = productMapper.selectPage(pageObj, wrapper);
-        return PageResponse.of(result.getRecords(), (int) result.getCurrent(), (int) result.getSize(), result.getTotal());
+        return pageQueryService.selectPage(productMapper, Product.class, wrapper, page, size, countMode);
     }
 
     /**
@@ -279,6 +456,7 @@ public class ProductService {
         if (!product.getSellerId().equals(sellerId)) {
             throw new IllegalArgumentException("无权修改该商品");
         }
+        Long previousCategoryId = product.getCategoryId();
         
         // 只更新允许修改的字段
         if (updateData.getCoverUrl() != null) {
@@ -310,6 +488,7 @@ public class ProductService {
         String cacheKey = cacheService.getProductKey(productId);
         cacheService.set(cacheKey, product);
         log.debug("更新商品缓存: ID={}", productId);
+        syncAfterCommit(product, previousCategoryId);
         
         return product;
     }
@@ -340,6 +519,31 @@ public class ProductService {
         String cacheKey = cacheService.getProductKey(productId);
         cacheService.set(cacheKey, product);
         log.debug("更新商品缓存: ID={}", productId);
+        syncAfterCommit(product, product.getCategoryId());
+    }
+
+    /**
+     * 事务提交后同步派生数据（信息流缓存、商品卡片、已序列化响应、搜索索引、附近商品索引），避免提交前被并发请求用旧数据重新填充
+     * @param previousCategoryId 修改前的分类ID
+     */
+    private void syncAfterCommit(Product product, Long previousCategoryId) {
+        Runnable sync = () -> {
+            cacheService.evictFeedPages(previousCategoryId, product.getCategoryId());
+            cacheService.delete(cacheService.getProductCardKey(product.getId()));
+            renderedResponseCache.onProductChanged(product.getId(), previousCategoryId, product.getCategoryId());
+            productSearchIndex.upsert(product);
+            productGeoIndex.upsert(product);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    sync.run();
+                }
+            });
+        } else {
+            sync.run();
+        }
     }
 
     /**
@@ -349,6 +553,8 @@ public class ProductService {
         if (productId != null) {
             String cacheKey = cacheService.getProductKey(productId);
             cacheService.delete(cacheKey);
+            cacheService.delete(cacheService.getProductCardKey(productId));
+            renderedResponseCache.onProductChanged(productId);
             log.debug("删除商品缓存: ID={}", productId);
         }
     }
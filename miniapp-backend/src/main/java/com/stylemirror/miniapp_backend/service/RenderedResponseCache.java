@@ -0,0 +1,261 @@
+package com.stylemirror.miniapp_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.stylemirror.miniapp_backend.common.ApiResponse;
+import com.stylemirror.miniapp_backend.dto.ProductCard;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 已序列化响应的本地缓存
+ * 热门商品详情和信息流首页直接缓存 ApiResponse 的JSON字节和ETag，
+ * 客户端带 If-None-Match 的条件请求在本机命中时无需访问MySQL、Redis，也不再做JSON序列化
+ *
+ * 商品表没有 updated_at 字段，这里为每个商品和每个信息流范围维护本地版本号，
+ * 写操作提交后递增版本号，旧版本的缓存条目不再被读取；
+ * 递增通过Redis发布订阅广播给其他节点，卖家资料和分类变更时失效带有对应卖家、分类的商品详情
+ */
+@Service
+@Slf4j
+public class RenderedResponseCache implements MessageListener {
+    // 失效广播频道，消息格式：节点ID|目标（多个目标换行分隔）
+    // 目标：D:商品ID、F:信息流范围、S:卖家ID、C:分类ID
+    private static final String INVALIDATE_CHANNEL = "rendered:invalidate";
+
+    // 条目过期时间（毫秒），兜底漏收的失效广播
+    private static final long EXPIRE_MILLIS = 60_000;
+    // 最多缓存的条目数
+    private static final int MAX_ENTRIES = 5_000;
+
+    private final ObjectMapper objectMapper;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<String, Rendered> entries = new ConcurrentHashMap<>();
+    // 商品ID -> 版本号
+    // 版本号只需要比条目活得久：递增后两个过期周期内旧版本的条目都已过期，之后回到0也不会读到旧数据
+    private final Cache<Long, AtomicLong> productVersions = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMillis(EXPIRE_MILLIS * 2))
+            .maximumSize(MAX_ENTRIES * 10L)
+            .build();
+    // 信息流范围（all 或 cat:{id}）-> 版本号，范围数量不超过分类数
+    private final Map<String, AtomicLong> feedVersions = new ConcurrentHashMap<>();
+
+    /**
+     * 已序列化的响应
+     * @param etag 强ETag（响应字节的MD5，同样的内容在不同实例上得到同样的ETag）
+     * @param sellerId 商品详情的卖家ID（信息流为null），卖家资料变更时据此失效
+     * @param categoryId 商品详情的分类ID（信息流为null），分类变更时据此失效
+     */
+    public record Rendered(byte[] body, String etag, long createdAt, Long sellerId, Long categoryId) {
+        boolean expired(long now) {
+            return now - createdAt > EXPIRE_MILLIS;
+        }
+    }
+
+    public RenderedResponseCache(
+            ObjectMapper objectMapper,
+            RedisTemplate<String, Object> redisTemplate,
+            RedisMessageListenerContainer listenerContainer) {
+        this.objectMapper = objectMapper;
+        this.redisTemplate = redisTemplate;
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATE_CHANNEL));
+    }
+
+    /**
+     * 商品详情缓存Key（包含当前版本号）
+     */
+    public String productKey(Long productId) {
+        AtomicLong version = productVersions.getIfPresent(productId);
+        return "detail:" + productId + ":v" + (version != null ? version.get() : 0);
+    }
+
+    /**
+     * 信息流首页缓存Key（包含当前版本号）
+     * @param variant 排序方式、每页数量等区分同一范围下不同响应的部分
+     */
+    public String feedKey(Long categoryId, String variant) {
+        String scope = feedScope(categoryId);
+        AtomicLong version = feedVersions.get(scope);
+        return "feed:" + scope + ":" + variant + ":v" + (version != null ? version.get() : 0);
+    }
+
+    /**
+     * 获取已序列化的响应，未命中时调用loader生成并序列化
+     * loader抛出的异常（如商品不存在）直接向上抛出，不缓存
+     */
+    public Rendered getOrRender(String key, Supplier<Object> loader) {
+        long now = System.currentTimeMillis();
+        Rendered cached = entries.get(key);
+        if (cached != null && !cached.expired(now)) {
+            return cached;
+        }
+        Rendered rendered = render(loader.get(), now);
+        if (entries.size() >= MAX_ENTRIES) {
+            entries.values().removeIf(entry -> entry.expired(now));
+            if (entries.size() >= MAX_ENTRIES) {
+                // 热点集中在少量商品上，满了直接清空比维护LRU更简单
+                entries.clear();
+            }
+        }
+        entries.put(key, rendered);
+        return rendered;
+    }
+
+    /**
+     * 商品写操作提交后调用：递增商品版本和相关信息流范围的版本，并通知其他节点
+     * @param categoryIds 修改前后的分类ID
+     */
+    public void onProductChanged(Long productId, Long... categoryIds) {
+        List<String> targets = new ArrayList<>();
+        if (productId != null) {
+            targets.add("D:" + productId);
+        }
+        targets.add("F:" + feedScope(null));
+        for (Long categoryId : categoryIds) {
+            if (categoryId != null) {
+                targets.add("F:" + feedScope(categoryId));
+            }
+        }
+        invalidate(targets);
+    }
+
+    /**
+     * 卖家昵称、头像变更后调用：失效该卖家商品的详情
+     */
+    public void onSellerChanged(Long sellerId) {
+        if (sellerId != null) {
+            invalidate(List.of("S:" + sellerId));
+        }
+    }
+
+    /**
+     * 分类改名或删除后调用：失效该分类下商品的详情
+     */
+    public void onCategoryChanged(Long categoryId) {
+        if (categoryId != null) {
+            invalidate(List.of("C:" + categoryId));
+        }
+    }
+
+    /**
+     * 判断 If-None-Match 请求头是否与ETag匹配
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 接收其他节点的失效广播
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf('|');
+        if (separator < 0 || body.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        try {
+            for (String target : body.substring(separator + 1).split("\n")) {
+                applyLocal(target);
+            }
+            log.debug("收到响应缓存失效广播: {}", body);
+        } catch (Exception e) {
+            // 条目过期后自然修正
+            log.error("处理响应缓存失效广播失败: {}", body, e);
+        }
+    }
+
+    private void invalidate(List<String> targets) {
+        targets.forEach(this::applyLocal);
+        String body = nodeId + "|" + String.join("\n", targets);
+        try {
+            redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(
+                    INVALIDATE_CHANNEL.getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            // 其他节点上的条目过期后修正
+            log.error("广播响应缓存失效失败: {}", targets, e);
+        }
+    }
+
+    private void applyLocal(String target) {
+        String value = target.substring(2);
+        switch (target.charAt(0)) {
+            case 'D' -> bumpProduct(Long.valueOf(value));
+            case 'F' -> bumpFeed(value);
+            case 'S' -> bumpDetails(Rendered::sellerId, Long.valueOf(value));
+            case 'C' -> bumpDetails(Rendered::categoryId, Long.valueOf(value));
+            default -> log.warn("未知的响应缓存失效目标: {}", target);
+        }
+    }
+
+    private void bumpProduct(Long productId) {
+        productVersions.asMap().computeIfAbsent(productId, k -> new AtomicLong()).incrementAndGet();
+        entries.keySet().removeIf(key -> key.startsWith("detail:" + productId + ":"));
+    }
+
+    private void bumpFeed(String scope) {
+        feedVersions.computeIfAbsent(scope, k -> new AtomicLong()).incrementAndGet();
+        entries.keySet().removeIf(key -> key.startsWith("feed:" + scope + ":"));
+    }
+
+    /**
+     * 递增卖家或分类匹配的商品详情版本
+     */
+    private void bumpDetails(Function<Rendered, Long> attribute, Long id) {
+        List<Long> productIds = new ArrayList<>();
+        entries.forEach((key, entry) -> {
+            if (key.startsWith("detail:") && Objects.equals(attribute.apply(entry), id)) {
+                productIds.add(Long.valueOf(key.substring("detail:".length(), key.indexOf(':', "detail:".length()))));
+            }
+        });
+        productIds.forEach(this::bumpProduct);
+    }
+
+    private Rendered render(Object data, long now) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(ApiResponse.success(data));
+            String etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+            if (data instanceof ProductCard card) {
+                return new Rendered(body, etag, now, card.getSellerId(), card.getCategoryId());
+            }
+            return new Rendered(body, etag, now, null, null);
+        } catch (Exception e) {
+            throw new IllegalStateException("序列化响应失败", e);
+        }
+    }
+
+    private static String feedScope(Long categoryId) {
+        return categoryId == null ? "all" : "cat:" + categoryId;
+    }
+}
@@ -19,14 +19,25 @@ import java.util.Optional;
 @Slf4j
 public class ShareLinkService {
     private final ShareLinkMapper shareLinkMapper;
+    private final CacheService cacheService;
+    private final ExistenceFilter existenceFilter;
+
+    // 分享链接缓存基础过期时间（秒）
+    private static final long SHARE_LINK_EXPIRE_TIME = 3600;
 
     /**
-     * 根据分享码查询分享链接
+     * 根据分享码查询分享链接（带缓存，未知分享码由布隆过滤器和不存在标记拦截）
      */
     public Optional<ShareLink> findByCode(String code) {
-        QueryWrapper<ShareLink> wrapper = new QueryWrapper<>();
-        wrapper.eq("code", code);
-        return Optional.ofNullable(shareLinkMapper.selectOne(wrapper));
+        if (code == null || code.isEmpty() || !existenceFilter.mightContain(ExistenceFilter.SHARE_LINK, code)) {
+            return Optional.empty();
+        }
+        ShareLink shareLink = cacheService.getOrLoad(cacheService.getShareLinkKey(code), ShareLink.class, () -> {
+            QueryWrapper<ShareLink> wrapper = new QueryWrapper<>();
+            wrapper.eq("code", code);
+            return shareLinkMapper.selectOne(wrapper);
+        }, SHARE_LINK_EXPIRE_TIME);
+        return Optional.ofNullable(shareLink);
     }
 
     /**
@@ -37,9 +48,12 @@ public class ShareLinkService {
         if (shareLink.getId() == null) {
             shareLinkMapper.insert(shareLink);
             log.info("新增分享链接，ID: {}, 分享码: {}", shareLink.getId(), shareLink.getCode());
+            existenceFilter.add(ExistenceFilter.SHARE_LINK, shareLink.getCode());
+            cacheService.clearMissing(cacheService.getShareLinkKey(shareLink.getCode()));
         } else {
             shareLinkMapper.updateById(shareLink);
             log.info("更新分享链接，ID: {}, 分享码: {}", shareLink.getId(), shareLink.getCode());
+            cacheService.delete(cacheService.getShareLinkKey(shareLink.getCode()));
         }
         return shareLink;
     }
@@ -2,17 +2,22 @@ package com.stylemirror.miniapp_backend.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 用户每日配额 Service
  * 使用 Redis 缓存实现，每天零点自动重置
+ * Redis不可用（含熔断）时退化为本节点内存计数，配额仍按节点近似生效，不阻塞翻译和语音合成
  */
 @Service
 @Slf4j
@@ -23,6 +28,10 @@ public class UserDailyQuotaService {
     private static final String QUOTA_KEY_PREFIX = "user:quota:";
     
     private final RedisTemplate<String, Object> redisTemplate;
+    private final CacheMetrics cacheMetrics;
+
+    // Redis不可用期间本节点的已使用字数，Key同Redis配额Key（带日期）
+    private final Map<String, AtomicInteger> localUsage = new ConcurrentHashMap<>();
 
     /**
      * 获取用户的配额 Redis Key
@@ -49,8 +58,7 @@ public class UserDailyQuotaService {
         String key = getQuotaKey(userId);
         
         // 从Redis读取已使用字数
-        Object usedObj = redisTemplate.opsForValue().get(key);
-        int usedChars = usedObj != null ? Integer.parseInt(usedObj.toString()) : 0;
+        int usedChars = getUsedChars(key);
         
         int remainingChars = MAX_CHARS_PER_DAY - usedChars;
         
@@ -69,7 +77,16 @@ public class UserDailyQuotaService {
         String key = getQuotaKey(userId);
         
         // 使用 INCRBY 原子增加已使用字数
-        Long newUsedChars = redisTemplate.opsForValue().increment(key, chars);
+        Long newUsedChars;
+        try {
+            newUsedChars = redisTemplate.opsForValue().increment(key, chars);
+        } catch (DataAccessException e) {
+            cacheMetrics.error(key, e);
+            localUsage.keySet().removeIf(k -> !k.endsWith(":" + LocalDate.now()));
+            int used = localUsage.computeIfAbsent(key, k -> new AtomicInteger()).addAndGet(chars);
+            log.warn("Redis不可用，用户 {} 配额记入本地: 扣除 {} 字，本地已使用 {} 字", userId, chars, used);
+            return;
+        }
         
         // 如果是第一次使用，设置过期时间（到今天零点）
         if (newUsedChars != null && newUsedChars.equals((long) chars)) {
@@ -83,14 +100,33 @@ public class UserDailyQuotaService {
         }
     }
 
+    /**
+     * 读取已使用字数，Redis不可用时返回本节点内存计数
+     */
+    private int getUsedChars(String key) {
+        try (CacheMetrics.Scope ignored = cacheMetrics.scope(key)) {
+            Object usedObj = redisTemplate.opsForValue().get(key);
+            if (usedObj == null) {
+                cacheMetrics.miss(key);
+                return 0;
+            }
+            cacheMetrics.hit(key, CacheMetrics.REDIS);
+            return Integer.parseInt(usedObj.toString());
+        } catch (DataAccessException e) {
+            cacheMetrics.error(key, e);
+            log.warn("Redis不可用，使用本地配额计数: {}", e.getMessage());
+            AtomicInteger used = localUsage.get(key);
+            return used != null ? used.get() : 0;
+        }
+    }
+
     /**
      * 获取用户今天的配额使用情况
      */
     public QuotaInfo getTodayQuota(Long userId) {
         String key = getQuotaKey(userId);
         
-        Object usedObj = redisTemplate.opsForValue().get(key);
-        int usedChars = usedObj != null ? Integer.parseInt(usedObj.toString()) : 0;
+        int usedChars = getUsedChars(key);
         int remainingChars = MAX_CHARS_PER_DAY - usedChars;
         
         return QuotaInfo.builder()
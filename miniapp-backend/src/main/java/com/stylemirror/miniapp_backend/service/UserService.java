@@ -1,7 +1,7 @@
 package com.stylemirror.miniapp_backend.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
-import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.stylemirror.miniapp_backend.common.CountMode;
 import com.stylemirror.miniapp_backend.common.PageResponse;
 import com.stylemirror.miniapp_backend.domain.User;
 import com.stylemirror.miniapp_backend.repository.UserMapper;
@@ -9,9 +9,13 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -24,6 +28,12 @@ import java.util.Optional;
 public class UserService {
     private final UserMapper userMapper;
     private final CacheService cacheService;
+    private final PageQueryService pageQueryService;
+    private final ExistenceFilter existenceFilter;
+    private final RenderedResponseCache renderedResponseCache;
+
+    // 用户缓存基础过期时间（秒），实际过期时间带随机抖动
+    private static final long USER_EXPIRE_TIME = 3600;
 
     /**
      * 查询所有用户
@@ -42,7 +52,13 @@ public class UserService {
      * @return 分页响应
      */
     public PageResponse<User> findPage(int page, int size, String keyword, Boolean banned) {
-        Page<User> pageObj = new Page<>(page, size);
+        return findPage(page, size, keyword, banned, CountMode.EXACT);
+    }
+
+    /**
+     * 分页查询用户列表（管理端使用，指定总数统计方式）
+     */
+    public PageResponse<User> findPage(int page, int size, String keyword, Boolean banned, CountMode countMode) {
         QueryWrapper<User> wrapper = new QueryWrapper<>();
         
         // 关键词搜索：昵称或OpenID
@@ -60,8 +76,7 @@ public class UserService {
         // 按创建时间倒序
         wrapper.orderByDesc("created_at");
         
-        Page<User> result = userMapper.selectPage(pageObj, wrapper);
-        return PageResponse.of(result.getRecords(), (int) result.getCurrent(), (int) result.getSize(), result.getTotal());
+        return pageQueryService.selectPage(userMapper, User.class, wrapper, page, size, countMode);
     }
 
     /**
@@ -72,24 +87,32 @@ public class UserService {
             return Optional.empty();
         }
 
-        // 先从缓存获取
-        String cacheKey = cacheService.getUserKey(id);
-        User cachedUser = cacheService.get(cacheKey, User.class);
-        if (cachedUser != null) {
-            log.debug("从缓存获取用户: ID={}", id);
-            return Optional.of(cachedUser);
+        // 布隆过滤器判定不存在的ID直接返回
+        if (!existenceFilter.mightContain(ExistenceFilter.USER, id)) {
+            return Optional.empty();
         }
 
-        // 缓存未命中，从数据库查询
-        User user = userMapper.selectById(id);
-        if (user != null) {
-            // 写入缓存
-            cacheService.set(cacheKey, user);
+        // 缓存未命中时合并并发回源，只有一个请求查库
+        String cacheKey = cacheService.getUserKey(id);
+        User user = cacheService.getOrLoad(cacheKey, User.class, () -> {
             log.debug("从数据库获取用户并写入缓存: ID={}", id);
-        }
+            return userMapper.selectById(id);
+        }, USER_EXPIRE_TIME);
         return Optional.ofNullable(user);
     }
 
+    /**
+     * 批量查询用户（带缓存）：一次MGET，未命中的一次selectBatchIds
+     * @return 用户ID -> 用户（按传入ID顺序，不存在的用户不包含在内）
+     */
+    public Map<Long, User> findByIds(Collection<Long> ids) {
+        List<Long> candidates = ids.stream()
+                .filter(id -> existenceFilter.mightContain(ExistenceFilter.USER, id))
+                .toList();
+        return cacheService.multiGetOrLoad(candidates, cacheService::getUserKey, User.class,
+                userMapper::selectBatchIds, User::getId);
+    }
+
     /**
      * 根据OpenID查询用户（带缓存）
      */
@@ -98,26 +121,19 @@ public class UserService {
             return Optional.empty();
         }
 
-        // 先从缓存获取（通过OpenID的缓存key）
+        // 通过OpenID的缓存key获取，未命中时合并并发回源
         String openidCacheKey = cacheService.getUserOpenidKey(openid);
-        User cachedUser = cacheService.get(openidCacheKey, User.class);
-        if (cachedUser != null) {
-            log.debug("从缓存获取用户: OpenID={}", openid);
-            return Optional.of(cachedUser);
-        }
-
-        // 缓存未命中，从数据库查询
-        QueryWrapper<User> wrapper = new QueryWrapper<>();
-        wrapper.eq("openid", openid);
-        User user = userMapper.selectOne(wrapper);
-        
-        if (user != null) {
-            // 写入两个缓存：ID和OpenID
-            String idCacheKey = cacheService.getUserKey(user.getId());
-            cacheService.set(idCacheKey, user);
-            cacheService.set(openidCacheKey, user);
-            log.debug("从数据库获取用户并写入缓存: OpenID={}, ID={}", openid, user.getId());
-        }
+        User user = cacheService.getOrLoad(openidCacheKey, User.class, () -> {
+            QueryWrapper<User> wrapper = new QueryWrapper<>();
+            wrapper.eq("openid", openid);
+            User loaded = userMapper.selectOne(wrapper);
+            if (loaded != null) {
+                // 顺带写入ID缓存
+                cacheService.backfill(cacheService.getUserKey(loaded.getId()), loaded);
+                log.debug("从数据库获取用户并写入缓存: OpenID={}, ID={}", openid, loaded.getId());
+            }
+            return loaded;
+        }, USER_EXPIRE_TIME);
         return Optional.ofNullable(user);
     }
 
@@ -146,6 +162,11 @@ public class UserService {
         if (isNew) {
             userMapper.insert(user);
             log.info("新增用户，ID: {}, OpenID: {}", user.getId(), user.getOpenid());
+            existenceFilter.add(ExistenceFilter.USER, user.getId());
+            cacheService.clearMissing(cacheService.getUserKey(user.getId()));
+            if (user.getOpenid() != null) {
+                cacheService.clearMissing(cacheService.getUserOpenidKey(user.getOpenid()));
+            }
         } else {
             userMapper.updateById(user);
             log.info("更新用户，ID: {}, OpenID: {}", user.getId(), user.getOpenid());
@@ -157,6 +178,12 @@ public class UserService {
                 String openidCacheKey = cacheService.getUserOpenidKey(user.getOpenid());
                 cacheService.delete(openidCacheKey);
             }
+            // 商品卡片中带有卖家昵称和头像，提交后再失效，避免并发请求用旧资料重新填充
+            Long sellerId = user.getId();
+            runAfterCommit(() -> {
+                cacheService.invalidateTags(cacheService.getSellerTag(sellerId));
+                renderedResponseCache.onSellerChanged(sellerId);
+            });
         }
         
         // 写入新缓存
@@ -195,5 +222,21 @@ public class UserService {
             log.debug("删除用户OpenID缓存: OpenID={}", openid);
         }
     }
+
+    /**
+     * 事务提交后执行（没有事务时立即执行）
+     */
+    private void runAfterCommit(Runnable sync) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    sync.run();
+                }
+            });
+        } else {
+            sync.run();
+        }
+    }
 }
 
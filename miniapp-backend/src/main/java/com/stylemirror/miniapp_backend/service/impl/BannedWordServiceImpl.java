@@ -6,6 +6,7 @@ import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.stylemirror.miniapp_backend.domain.BannedWord;
 import com.stylemirror.miniapp_backend.repository.BannedWordMapper;
 import com.stylemirror.miniapp_backend.service.BannedWordService;
+import com.stylemirror.miniapp_backend.service.ModerationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -14,6 +15,7 @@ import java.time.LocalDateTime;
 
 /**
  * 违禁词管理服务实现
+ * 增删改、启停成功后通知所有节点重建敏感词词典
  */
 @Slf4j
 @Service
@@ -21,6 +23,7 @@ import java.time.LocalDateTime;
 public class BannedWordServiceImpl extends ServiceImpl<BannedWordMapper, BannedWord> implements BannedWordService {
     
     private final BannedWordMapper bannedWordMapper;
+    private final ModerationService moderationService;
     
     @Override
     public Page<BannedWord> getAllBannedWords(Integer pageNum, Integer pageSize, String category, Boolean isActive) {
@@ -55,6 +58,7 @@ public class BannedWordServiceImpl extends ServiceImpl<BannedWordMapper, BannedW
         }
         
         this.save(bannedWord);
+        moderationService.publishDictionaryChange();
         log.info("管理员 {} 添加了违禁词: {}", adminId, bannedWord.getWord());
         return bannedWord;
     }
@@ -66,6 +70,7 @@ public class BannedWordServiceImpl extends ServiceImpl<BannedWordMapper, BannedW
         
         boolean success = this.updateById(bannedWord);
         if (success) {
+            moderationService.publishDictionaryChange();
             log.info("管理员 {} 修改了违禁词: {}", adminId, bannedWord.getWord());
         }
         return success;
@@ -80,6 +85,7 @@ public class BannedWordServiceImpl extends ServiceImpl<BannedWordMapper, BannedW
         
         boolean success = this.removeById(id);
         if (success) {
+            moderationService.publishDictionaryChange();
             log.info("管理员 {} 删除了违禁词: {}", adminId, bannedWord.getWord());
         }
         return success;
@@ -98,6 +104,7 @@ public class BannedWordServiceImpl extends ServiceImpl<BannedWordMapper, BannedW
         
         boolean success = this.updateById(bannedWord);
         if (success) {
+            moderationService.publishDictionaryChange();
             log.info("管理员 {} {}了违禁词: {}", adminId, isActive ? "启用" : "禁用", bannedWord.getWord());
         }
         return success;
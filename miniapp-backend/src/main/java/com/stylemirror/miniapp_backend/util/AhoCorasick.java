@@ -0,0 +1,210 @@
+package com.stylemirror.miniapp_backend.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aho-Corasick 多模式匹配自动机（构建后不可变，线程安全）
+ * 一次扫描文本即可找出所有词典词的出现位置，耗时与文本长度成正比，与词典大小无关。
+ *
+ * 状态转移用基本类型数组存储：根节点按字符直接索引（65536项），其余节点的边按字符排序存放，
+ * 查找时二分；失败指针和输出链也是 int 数组
+ */
+public final class AhoCorasick {
+    private static final int ROOT = 0;
+
+    /**
+     * 匹配回调
+     */
+    @FunctionalInterface
+    public interface MatchHandler {
+        /**
+         * @param start 匹配起始位置（含）
+         * @param end 匹配结束位置（不含）
+         * @param wordIndex 词在词典中的下标，见 {@link #word(int)}
+         * @return false 表示停止扫描
+         */
+        boolean onMatch(int start, int end, int wordIndex);
+    }
+
+    private final String[] words;
+    private final int[] rootNext;
+    // 状态s的边位于 [edgeStart[s], edgeStart[s + 1])，按字符升序
+    private final int[] edgeStart;
+    private final char[] edgeChars;
+    private final int[] edgeTargets;
+    private final int[] fail;
+    // 以该状态结尾的词下标，没有时为-1
+    private final int[] output;
+    // 沿失败指针找到的下一个有输出的状态，没有时为-1
+    private final int[] outputLink;
+
+    private AhoCorasick(String[] words, int[] rootNext, int[] edgeStart, char[] edgeChars, int[] edgeTargets,
+                        int[] fail, int[] output, int[] outputLink) {
+        this.words = words;
+        this.rootNext = rootNext;
+        this.edgeStart = edgeStart;
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.fail = fail;
+        this.output = output;
+        this.outputLink = outputLink;
+    }
+
+    /**
+     * 从词列表构建自动机，忽略空词和重复词
+     */
+    public static AhoCorasick build(Collection<String> dictionary) {
+        LinkedHashSet<String> unique = new LinkedHashSet<>();
+        for (String word : dictionary) {
+            if (word != null && !word.isEmpty()) {
+                unique.add(word);
+            }
+        }
+        String[] words = unique.toArray(new String[0]);
+
+        // 1. 构建字典树：转移表 Key = 状态 << 16 | 字符
+        Map<Long, Integer> transitions = new HashMap<>();
+        List<Integer> terminal = new ArrayList<>();
+        terminal.add(-1);
+        for (int w = 0; w < words.length; w++) {
+            int state = ROOT;
+            String word = words[w];
+            for (int i = 0; i < word.length(); i++) {
+                long key = (long) state << 16 | word.charAt(i);
+                Integer next = transitions.get(key);
+                if (next == null) {
+                    next = terminal.size();
+                    terminal.add(-1);
+                    transitions.put(key, next);
+                }
+                state = next;
+            }
+            terminal.set(state, w);
+        }
+        int stateCount = terminal.size();
+
+        // 2. 边按（状态, 字符）排序后平铺为数组
+        long[] keys = new long[transitions.size()];
+        int k = 0;
+        for (Long key : transitions.keySet()) {
+            keys[k++] = key;
+        }
+        Arrays.sort(keys);
+        int[] edgeStart = new int[stateCount + 1];
+        char[] edgeChars = new char[keys.length];
+        int[] edgeTargets = new int[keys.length];
+        int[] rootNext = new int[Character.MAX_VALUE + 1];
+        Arrays.fill(rootNext, -1);
+        for (int i = 0; i < keys.length; i++) {
+            int state = (int) (keys[i] >>> 16);
+            edgeStart[state + 1]++;
+            edgeChars[i] = (char) keys[i];
+            edgeTargets[i] = transitions.get(keys[i]);
+            if (state == ROOT) {
+                rootNext[edgeChars[i]] = edgeTargets[i];
+            }
+        }
+        for (int s = 0; s < stateCount; s++) {
+            edgeStart[s + 1] += edgeStart[s];
+        }
+
+        int[] output = new int[stateCount];
+        for (int s = 0; s < stateCount; s++) {
+            output[s] = terminal.get(s);
+        }
+        int[] fail = new int[stateCount];
+        int[] outputLink = new int[stateCount];
+        Arrays.fill(outputLink, -1);
+        AhoCorasick automaton = new AhoCorasick(words, rootNext, edgeStart, edgeChars, edgeTargets,
+                fail, output, outputLink);
+
+        // 3. 按层（BFS）计算失败指针和输出链
+        int[] queue = new int[stateCount];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = ROOT;
+        while (head < tail) {
+            int state = queue[head++];
+            for (int e = edgeStart[state]; e < edgeStart[state + 1]; e++) {
+                int child = edgeTargets[e];
+                if (state == ROOT) {
+                    fail[child] = ROOT;
+                } else {
+                    fail[child] = automaton.next(fail[state], edgeChars[e]);
+                }
+                int f = fail[child];
+                outputLink[child] = output[f] >= 0 ? f : outputLink[f];
+                queue[tail++] = child;
+            }
+        }
+        return automaton;
+    }
+
+    /**
+     * 词典中的词数
+     */
+    public int size() {
+        return words.length;
+    }
+
+    public boolean isEmpty() {
+        return words.length == 0;
+    }
+
+    public String word(int index) {
+        return words[index];
+    }
+
+    /**
+     * 扫描文本，按结束位置从前到后回调每一处匹配（同一位置结束的多个词，长的在前）
+     */
+    public void forEachMatch(CharSequence text, MatchHandler handler) {
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            state = next(state, text.charAt(i));
+            for (int s = output[state] >= 0 ? state : outputLink[state]; s >= 0; s = outputLink[s]) {
+                int word = output[s];
+                if (!handler.onMatch(i + 1 - words[word].length(), i + 1, word)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private int next(int state, char c) {
+        while (true) {
+            if (state == ROOT) {
+                int target = rootNext[c];
+                return target < 0 ? ROOT : target;
+            }
+            int target = child(state, c);
+            if (target >= 0) {
+                return target;
+            }
+            state = fail[state];
+        }
+    }
+
+    private int child(int state, char c) {
+        int low = edgeStart[state];
+        int high = edgeStart[state + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char value = edgeChars[mid];
+            if (value < c) {
+                low = mid + 1;
+            } else if (value > c) {
+                high = mid - 1;
+            } else {
+                return edgeTargets[mid];
+            }
+        }
+        return -1;
+    }
+}
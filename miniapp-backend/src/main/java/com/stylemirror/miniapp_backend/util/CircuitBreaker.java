@@ -0,0 +1,185 @@
+package com.stylemirror.miniapp_backend.util;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 基于最近N次调用的熔断器
+ * - CLOSED：正常放行，最近窗口内失败（含慢调用）比例达到阈值后转为 OPEN
+ * - OPEN：直接拒绝，等待时间结束后转为 HALF_OPEN
+ * - HALF_OPEN：放行少量探测调用，全部成功则恢复 CLOSED，任一失败重新 OPEN
+ */
+public final class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /**
+     * 熔断器状态快照
+     */
+    public record Snapshot(State state, double failureRate, long calls, long failures, long slowCalls,
+                           long rejected, long opened) {}
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenProbes;
+    private final LongSupplier nanoClock;
+
+    // 最近windowSize次调用的结果（true表示失败或慢调用）
+    private final boolean[] window;
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int probesInFlight;
+    private int probesSucceeded;
+
+    private long calls;
+    private long failures;
+    private long slowCalls;
+    private long rejected;
+    private long opened;
+
+    /**
+     * @param windowSize 统计最近多少次调用
+     * @param minimumCalls 窗口内至少多少次调用才计算失败率
+     * @param failureRateThreshold 失败率阈值（0~1），慢调用也计为失败
+     * @param slowCallMillis 超过该耗时视为慢调用
+     * @param openMillis 熔断后多久开始探测
+     * @param halfOpenProbes 半开状态放行的探测调用数
+     */
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+                          long slowCallMillis, long openMillis, int halfOpenProbes) {
+        this(windowSize, minimumCalls, failureRateThreshold, slowCallMillis, openMillis, halfOpenProbes, System::nanoTime);
+    }
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+                          long slowCallMillis, long openMillis, int halfOpenProbes, LongSupplier nanoClock) {
+        this.windowSize = Math.max(windowSize, 1);
+        this.minimumCalls = Math.min(Math.max(minimumCalls, 1), this.windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = slowCallMillis * 1_000_000;
+        this.openNanos = openMillis * 1_000_000;
+        this.halfOpenProbes = Math.max(halfOpenProbes, 1);
+        this.nanoClock = nanoClock;
+        this.window = new boolean[this.windowSize];
+    }
+
+    /**
+     * 申请一次调用许可，返回false时调用方应直接走降级逻辑；
+     * 返回true时必须在调用结束后调用 onSuccess 或 onFailure
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAt < openNanos) {
+                rejected++;
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probesInFlight = 0;
+            probesSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight + probesSucceeded >= halfOpenProbes) {
+                rejected++;
+                return false;
+            }
+            probesInFlight++;
+        }
+        return true;
+    }
+
+    /**
+     * 当前是否可能放行调用（不占用探测名额），用于获取连接等前置步骤的快速失败
+     */
+    public synchronized boolean isCallPermitted() {
+        if (state == State.OPEN) {
+            return nanoClock.getAsLong() - openedAt >= openNanos;
+        }
+        return state == State.CLOSED || probesInFlight + probesSucceeded < halfOpenProbes;
+    }
+
+    /**
+     * 调用完成（未抛出基础设施异常），耗时超过阈值时按慢调用处理
+     */
+    public synchronized void onSuccess(long durationNanos) {
+        calls++;
+        boolean slow = durationNanos > slowCallNanos;
+        if (slow) {
+            slowCalls++;
+        }
+        if (state == State.HALF_OPEN) {
+            probesInFlight = Math.max(probesInFlight - 1, 0);
+            if (slow) {
+                open();
+            } else if (++probesSucceeded >= halfOpenProbes) {
+                close();
+            }
+            return;
+        }
+        record(slow);
+    }
+
+    /**
+     * 调用失败（连接失败、超时等）
+     */
+    public synchronized void onFailure(long durationNanos) {
+        calls++;
+        failures++;
+        if (state != State.CLOSED) {
+            // 半开探测失败，或熔断等待结束后的前置步骤（如建立连接）失败，重新开始熔断计时
+            probesInFlight = Math.max(probesInFlight - 1, 0);
+            open();
+            return;
+        }
+        record(true);
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(state, failureRate(), calls, failures, slowCalls, rejected, opened);
+    }
+
+    private void record(boolean failed) {
+        if (windowCount == windowSize) {
+            if (window[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = failed;
+        if (failed) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % windowSize;
+        if (state == State.CLOSED && windowCount >= minimumCalls && failureRate() >= failureRateThreshold) {
+            open();
+        }
+    }
+
+    private double failureRate() {
+        return windowCount == 0 ? 0 : (double) windowFailures / windowCount;
+    }
+
+    private void open() {
+        if (state != State.OPEN) {
+            opened++;
+        }
+        state = State.OPEN;
+        openedAt = nanoClock.getAsLong();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        windowIndex = 0;
+        windowCount = 0;
+        windowFailures = 0;
+    }
+}
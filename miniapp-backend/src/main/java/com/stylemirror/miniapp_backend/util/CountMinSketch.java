@@ -0,0 +1,85 @@
+package com.stylemirror.miniapp_backend.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 线程安全的Count-Min Sketch，用固定内存估计元素出现次数
+ * 估计值只会偏大不会偏小；定期调用 halve 让历史计数衰减，估计值反映近期访问频率
+ */
+public final class CountMinSketch {
+    private final AtomicIntegerArray counters;
+    private final int depth;
+    private final int mask;
+
+    /**
+     * @param depth 哈希函数（行）数
+     * @param width 每行计数器数，向上取整为2的幂
+     */
+    public CountMinSketch(int depth, int width) {
+        this.depth = Math.max(depth, 1);
+        int w = Integer.highestOneBit(Math.max(width, 2) - 1) << 1;
+        this.mask = w - 1;
+        this.counters = new AtomicIntegerArray(this.depth * w);
+    }
+
+    /**
+     * 计数加一
+     * @return 加一后的估计次数
+     */
+    public int increment(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            int index = i * (mask + 1) + ((h1 + i * h2) & mask);
+            int current;
+            do {
+                current = counters.get(index);
+                if (current == Integer.MAX_VALUE) {
+                    break;
+                }
+            } while (!counters.compareAndSet(index, current, current + 1));
+            min = Math.min(min, current == Integer.MAX_VALUE ? current : current + 1);
+        }
+        return min;
+    }
+
+    /**
+     * 估计出现次数
+     */
+    public int estimate(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            min = Math.min(min, counters.get(i * (mask + 1) + ((h1 + i * h2) & mask)));
+        }
+        return min;
+    }
+
+    /**
+     * 所有计数减半（衰减），与并发的 increment 交错时可能丢失少量计数
+     */
+    public void halve() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, counters.get(i) >>> 1);
+        }
+    }
+
+    /**
+     * 64位FNV-1a + SplitMix64终结函数
+     */
+    private static long hash(String value) {
+        long z = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            z ^= b & 0xff;
+            z *= 0x100000001b3L;
+        }
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
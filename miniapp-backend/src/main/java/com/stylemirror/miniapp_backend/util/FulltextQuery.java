@@ -0,0 +1,50 @@
+package com.stylemirror.miniapp_backend.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MySQL全文检索（ngram解析器）查询串构造
+ * 关键词按空白切分，每个词只保留字母、数字和汉字，转为 BOOLEAN MODE 的必选短语：+"词1" +"词2"
+ */
+public final class FulltextQuery {
+
+    // 与 MySQL ngram_token_size 默认值一致，短于该长度的词无法命中ngram索引
+    public static final int NGRAM_TOKEN_SIZE = 2;
+
+    private FulltextQuery() {}
+
+    /**
+     * 构造 BOOLEAN MODE 查询串
+     * @return 查询串；关键词为空或含有短于ngram长度的词时返回null（调用方回退LIKE）
+     */
+    public static String booleanQuery(String keyword) {
+        if (keyword == null || keyword.isBlank()) {
+            return null;
+        }
+        List<String> terms = new ArrayList<>();
+        for (String raw : keyword.trim().split("\\s+")) {
+            StringBuilder term = new StringBuilder(raw.length());
+            raw.codePoints()
+                    .filter(Character::isLetterOrDigit)
+                    .forEach(term::appendCodePoint);
+            if (term.length() == 0) {
+                continue;
+            }
+            if (term.codePointCount(0, term.length()) < NGRAM_TOKEN_SIZE) {
+                return null;
+            }
+            terms.add("+\"" + term + "\"");
+        }
+        return terms.isEmpty() ? null : String.join(" ", terms);
+    }
+
+    /**
+     * 相关度表达式（用于ORDER BY）
+     * 查询串只包含字母、数字、汉字、空格、加号和双引号，可以直接拼接到SQL中
+     * @param columns 全文索引列，如 "name, description"
+     */
+    public static String matchExpression(String columns, String booleanQuery) {
+        return "MATCH(" + columns + ") AGAINST('" + booleanQuery + "' IN BOOLEAN MODE)";
+    }
+}
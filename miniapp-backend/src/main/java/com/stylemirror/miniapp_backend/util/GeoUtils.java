@@ -0,0 +1,48 @@
+package com.stylemirror.miniapp_backend.util;
+
+public final class GeoUtils {
+
+    // 地球半径（公里）
+    public static final double EARTH_RADIUS_KM = 6371.0;
+    // 每度纬度对应的公里数，与 distanceKm 使用同一个地球半径，外接矩形不会比半径小
+    public static final double KM_PER_DEGREE_LAT = EARTH_RADIUS_KM * Math.PI / 180;
+
+    private GeoUtils() {}
+
+    /**
+     * 使用Haversine公式计算两点间距离（公里）
+     */
+    public static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
+                   Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
+                   Math.sin(dLng / 2) * Math.sin(dLng / 2);
+
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+
+        return EARTH_RADIUS_KM * c;
+    }
+
+    /**
+     * 以(lat, lng)为中心、半径radiusKm的外接矩形
+     * 经度方向取球面上圆的最大经度差 asin(sin(r/R) / cos(lat))，比 r / (R·cos(lat)) 略大，
+     * 保证Haversine距离不超过半径的点都在矩形内
+     */
+    public static BoundingBox boundingBox(double lat, double lng, double radiusKm) {
+        double dLat = radiusKm / KM_PER_DEGREE_LAT;
+        double sinRadius = Math.sin(radiusKm / EARTH_RADIUS_KM);
+        double cosLat = Math.cos(Math.toRadians(lat));
+        double dLng = sinRadius < cosLat ? Math.toDegrees(Math.asin(sinRadius / cosLat)) : 180.0;
+        return new BoundingBox(
+                Math.max(lat - dLat, -90.0), Math.min(lat + dLat, 90.0),
+                Math.max(lng - dLng, -180.0), Math.min(lng + dLng, 180.0));
+    }
+
+    public record BoundingBox(double minLat, double maxLat, double minLng, double maxLng) {
+        public boolean contains(double lat, double lng) {
+            return lat >= minLat && lat <= maxLat && lng >= minLng && lng <= maxLng;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.stylemirror.miniapp_backend.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+/**
+ * 商品图片URL解析
+ * coverUrl 字段可能是单张图片URL，也可能是多张图片的JSON数组字符串
+ */
+@Slf4j
+public final class ImageUrls {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<List<String>> LIST_TYPE = new TypeReference<>() {};
+
+    private ImageUrls() {
+    }
+
+    /**
+     * 将coverUrl解析为图片URL数组
+     */
+    public static List<String> decode(String coverUrl) {
+        if (coverUrl == null || coverUrl.isEmpty()) {
+            return List.of();
+        }
+        try {
+            // 尝试解析为JSON数组
+            if (coverUrl.startsWith("[")) {
+                List<String> urls = OBJECT_MAPPER.readValue(coverUrl, LIST_TYPE);
+                return urls != null && !urls.isEmpty() ? urls : List.of();
+            }
+            // 如果不是JSON格式，返回单张图片数组
+            return List.of(coverUrl);
+        } catch (Exception e) {
+            log.warn("解析图片URL失败，使用原始值，coverUrl: {}", coverUrl, e);
+            // 解析失败，返回单张图片数组
+            return List.of(coverUrl);
+        }
+    }
+}
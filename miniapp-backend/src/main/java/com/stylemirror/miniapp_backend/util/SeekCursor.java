@@ -0,0 +1,67 @@
+package com.stylemirror.miniapp_backend.util;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * 游标分页（keyset/seek）的不透明游标
+ * 编码最后一条记录的排序键和ID：(created_at, id) 或 (price, id)
+ */
+public record SeekCursor(String sortKey, String value, long id) {
+
+    public static final String KEY_CREATED_AT = "t";
+    public static final String KEY_PRICE = "p";
+
+    public static SeekCursor ofCreatedAt(Instant createdAt, long id) {
+        return new SeekCursor(KEY_CREATED_AT, String.valueOf(createdAt.toEpochMilli()), id);
+    }
+
+    public static SeekCursor ofPrice(BigDecimal price, long id) {
+        return new SeekCursor(KEY_PRICE, price.toPlainString(), id);
+    }
+
+    public Instant createdAt() {
+        return Instant.ofEpochMilli(Long.parseLong(value));
+    }
+
+    public BigDecimal price() {
+        return new BigDecimal(value);
+    }
+
+    public String encode() {
+        String raw = sortKey + ":" + value + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标，空字符串表示第一页（返回null）
+     *
+     * @param cursor 客户端回传的游标
+     * @param expectedSortKey 当前排序方式对应的排序键，游标必须与之一致
+     */
+    public static SeekCursor decode(String cursor, String expectedSortKey) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 3);
+            if (parts.length != 3 || !parts[0].equals(expectedSortKey)) {
+                throw new IllegalArgumentException("无效的分页游标");
+            }
+            SeekCursor decoded = new SeekCursor(parts[0], parts[1], Long.parseLong(parts[2]));
+            // 校验排序键值格式
+            if (KEY_PRICE.equals(decoded.sortKey())) {
+                decoded.price();
+            } else {
+                decoded.createdAt();
+            }
+            return decoded;
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException 也是 IllegalArgumentException 的子类
+            throw new IllegalArgumentException("无效的分页游标");
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.stylemirror.miniapp_backend.util;
+
+/**
+ * 审核用文本标准化：全角转半角、转小写、去掉空白/标点/零宽字符等分隔符（"色*情"、"Ｋ 粉" 都能命中）
+ * 每个字符查一次预先生成的映射表，单次扫描完成；标准化结果记录每个字符在原文中的位置，
+ * 匹配结果可以映射回原文做屏蔽
+ */
+public final class TextNormalizer {
+
+    // 字符 -> 标准化后的字符，0 表示丢弃
+    private static final char[] FOLD = new char[Character.MAX_VALUE + 1];
+
+    static {
+        for (int c = 1; c <= Character.MAX_VALUE; c++) {
+            int folded = c;
+            if (folded >= 0xFF01 && folded <= 0xFF5E) {
+                // 全角ASCII
+                folded -= 0xFEE0;
+            } else if (folded == 0x3000) {
+                // 全角空格
+                folded = ' ';
+            }
+            FOLD[c] = isSeparator(folded) ? 0 : Character.toLowerCase((char) folded);
+        }
+    }
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * 标准化后的文本
+     */
+    public static final class Normalized implements CharSequence {
+        private final char[] chars;
+        private final int length;
+        private final int[] offsets;
+
+        private Normalized(char[] chars, int length, int[] offsets) {
+            this.chars = chars;
+            this.length = length;
+            this.offsets = offsets;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return chars[index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(chars, start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(chars, 0, length);
+        }
+
+        /**
+         * 标准化文本的64位哈希
+         */
+        public long hash64() {
+            return TextNormalizer.hash64(this);
+        }
+
+        /**
+         * 标准化文本中 [start, end) 对应的原文起始位置（含）
+         */
+        public int originalStart(int start) {
+            return offsets[start];
+        }
+
+        /**
+         * 标准化文本中 [start, end) 对应的原文结束位置（不含），中间被去掉的分隔符也包含在内
+         */
+        public int originalEnd(int end) {
+            return offsets[end - 1] + 1;
+        }
+    }
+
+    /**
+     * 标准化文本，并记录每个字符在原文中的位置
+     */
+    public static Normalized normalize(CharSequence text) {
+        int n = text.length();
+        char[] chars = new char[n];
+        int[] offsets = new int[n];
+        int length = 0;
+        for (int i = 0; i < n; i++) {
+            char c = FOLD[text.charAt(i)];
+            if (c != 0) {
+                chars[length] = c;
+                offsets[length++] = i;
+            }
+        }
+        return new Normalized(chars, length, offsets);
+    }
+
+    /**
+     * 标准化词典中的词（不记录位置）
+     */
+    public static String normalizeWord(String word) {
+        char[] chars = new char[word.length()];
+        int length = 0;
+        for (int i = 0; i < word.length(); i++) {
+            char c = FOLD[word.charAt(i)];
+            if (c != 0) {
+                chars[length++] = c;
+            }
+        }
+        return new String(chars, 0, length);
+    }
+
+    /**
+     * 64位FNV-1a（按字符）+ SplitMix64终结函数
+     */
+    public static long hash64(CharSequence text) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+
+    private static boolean isSeparator(int c) {
+        if (Character.isWhitespace(c)) {
+            return true;
+        }
+        switch (Character.getType(c)) {
+            case Character.SPACE_SEPARATOR:
+            case Character.LINE_SEPARATOR:
+            case Character.PARAGRAPH_SEPARATOR:
+            case Character.CONTROL:
+            case Character.FORMAT:
+            case Character.CONNECTOR_PUNCTUATION:
+            case Character.DASH_PUNCTUATION:
+            case Character.START_PUNCTUATION:
+            case Character.END_PUNCTUATION:
+            case Character.INITIAL_QUOTE_PUNCTUATION:
+            case Character.FINAL_QUOTE_PUNCTUATION:
+            case Character.OTHER_PUNCTUATION:
+            case Character.MATH_SYMBOL:
+            case Character.MODIFIER_SYMBOL:
+                return true;
+            default:
+                return false;
+        }
+    }
+}
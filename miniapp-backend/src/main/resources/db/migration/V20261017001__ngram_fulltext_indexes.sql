@@ -0,0 +1,21 @@
+-- 管理端商品、分类搜索使用ngram全文索引（中文无空格分词，默认解析器无法命中）
+
+-- V6创建的 idx_products_fulltext 未指定解析器，先删除再用ngram重建
+SET @idx_exists := (SELECT COUNT(*) FROM information_schema.STATISTICS
+                    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'products' AND INDEX_NAME = 'idx_products_fulltext');
+SET @ddl := IF(@idx_exists > 0, 'ALTER TABLE products DROP INDEX idx_products_fulltext', 'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+ALTER TABLE products ADD FULLTEXT INDEX idx_products_fulltext (name, description) WITH PARSER ngram;
+
+-- 分类名称、描述全文索引
+SET @idx_exists := (SELECT COUNT(*) FROM information_schema.STATISTICS
+                    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'categories' AND INDEX_NAME = 'idx_categories_fulltext');
+SET @ddl := IF(@idx_exists > 0, 'ALTER TABLE categories DROP INDEX idx_categories_fulltext', 'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+ALTER TABLE categories ADD FULLTEXT INDEX idx_categories_fulltext (name, description) WITH PARSER ngram;
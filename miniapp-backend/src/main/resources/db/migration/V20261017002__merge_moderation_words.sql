@@ -0,0 +1,59 @@
+-- 内容审核统一使用 banned_words 表，把原 ModerationService 中硬编码的敏感词并入词库（已存在的词跳过）
+INSERT IGNORE INTO banned_words (word, category, severity, is_active, remark) VALUES
+-- 色情相关
+('色情', '色情', 'MEDIUM', TRUE, '色情词汇'),
+('黄色', '色情', 'MEDIUM', TRUE, '色情词汇'),
+('成人', '色情', 'MEDIUM', TRUE, '色情词汇'),
+('性爱', '色情', 'MEDIUM', TRUE, '色情词汇'),
+('做爱', '色情', 'MEDIUM', TRUE, '色情词汇'),
+('性交', '色情', 'MEDIUM', TRUE, '色情词汇'),
+('性服务', '色情', 'HIGH', TRUE, '色情词汇'),
+('约炮', '色情', 'HIGH', TRUE, '色情词汇'),
+('一夜情', '色情', 'MEDIUM', TRUE, '色情词汇'),
+-- 赌博相关
+('赌博', '赌博', 'HIGH', TRUE, '赌博相关'),
+('赌场', '赌博', 'HIGH', TRUE, '赌博相关'),
+('博彩', '赌博', 'MEDIUM', TRUE, '赌博相关'),
+('彩票', '赌博', 'MEDIUM', TRUE, '赌博相关'),
+('投注', '赌博', 'MEDIUM', TRUE, '赌博相关'),
+('下注', '赌博', 'MEDIUM', TRUE, '赌博相关'),
+('赌钱', '赌博', 'HIGH', TRUE, '赌博相关'),
+('赌球', '赌博', 'HIGH', TRUE, '赌博相关'),
+('赌马', '赌博', 'HIGH', TRUE, '赌博相关'),
+-- 毒品相关
+('毒品', '毒品', 'HIGH', TRUE, '毒品相关'),
+('吸毒', '毒品', 'HIGH', TRUE, '毒品相关'),
+('大麻', '毒品', 'HIGH', TRUE, '毒品相关'),
+('冰毒', '毒品', 'HIGH', TRUE, '毒品相关'),
+('海洛因', '毒品', 'HIGH', TRUE, '毒品相关'),
+('摇头丸', '毒品', 'HIGH', TRUE, '毒品相关'),
+('K粉', '毒品', 'HIGH', TRUE, '毒品相关'),
+('可卡因', '毒品', 'HIGH', TRUE, '毒品相关'),
+-- 政治敏感
+('涉政', '政治', 'MEDIUM', TRUE, '政治敏感词'),
+('政治', '政治', 'LOW', TRUE, '政治敏感词'),
+('政府', '政治', 'LOW', TRUE, '政治敏感词'),
+('领导人', '政治', 'MEDIUM', TRUE, '政治敏感词'),
+('国家机密', '政治', 'HIGH', TRUE, '政治敏感词'),
+-- 暴力相关
+('杀人', '暴力', 'HIGH', TRUE, '暴力相关'),
+('暴力', '暴力', 'MEDIUM', TRUE, '暴力相关'),
+('恐怖', '暴力', 'MEDIUM', TRUE, '暴力相关'),
+('爆炸', '暴力', 'MEDIUM', TRUE, '暴力相关'),
+('武器', '暴力', 'MEDIUM', TRUE, '暴力相关'),
+('枪支', '暴力', 'HIGH', TRUE, '暴力相关'),
+('炸弹', '暴力', 'HIGH', TRUE, '暴力相关'),
+-- 诈骗相关
+('诈骗', '诈骗', 'HIGH', TRUE, '诈骗词汇'),
+('骗钱', '诈骗', 'HIGH', TRUE, '诈骗词汇'),
+('假货', '诈骗', 'MEDIUM', TRUE, '诈骗词汇'),
+('假冒', '诈骗', 'MEDIUM', TRUE, '诈骗词汇'),
+('刷单', '诈骗', 'HIGH', TRUE, '诈骗词汇'),
+('刷信誉', '诈骗', 'HIGH', TRUE, '诈骗词汇'),
+-- 其他违规
+('代孕', '违法', 'HIGH', TRUE, '违法词汇'),
+('代考', '违法', 'HIGH', TRUE, '违法词汇'),
+('作弊', '违法', 'MEDIUM', TRUE, '违法词汇'),
+('黑客', '其他', 'MEDIUM', TRUE, '其他违规'),
+('病毒', '其他', 'LOW', TRUE, '其他违规'),
+('木马', '其他', 'LOW', TRUE, '其他违规');
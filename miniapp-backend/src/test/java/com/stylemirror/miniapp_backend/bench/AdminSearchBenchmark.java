@@ -0,0 +1,120 @@
+package com.stylemirror.miniapp_backend.bench;
+
+import com.stylemirror.miniapp_backend.util.FulltextQuery;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 管理端商品搜索基准：LIKE 与 ngram全文检索对比
+ * 需要一个可写的MySQL 8库，默认不运行：
+ * mvn test -Dtest=AdminSearchBenchmark -Dbench.jdbc.url=jdbc:mysql://localhost:3306/bench -Dbench.jdbc.user=root -Dbench.jdbc.password=xxx
+ * 可选参数：-Dbench.rows=1000000（造数行数，表已有足够数据时不重复造数）
+ */
+@EnabledIfSystemProperty(named = "bench.jdbc.url", matches = ".+")
+class AdminSearchBenchmark {
+
+    private static final String TABLE = "bench_products";
+    private static final int ROUNDS = 20;
+    // 只用单个词：多个词时全文检索要求每个词都命中，而LIKE回退按整个关键词匹配，两边结果集不同
+    private static final List<String> KEYWORDS = List.of("连衣裙", "蓝牙耳机", "积木", "自行车", "羽绒服", "卡其色");
+
+    private static final String[] ADJECTIVES = {"全新", "二手", "九成新", "正品", "复古", "简约", "加厚", "儿童", "男士", "女士"};
+    private static final String[] COLORS = {"红色", "黑色", "白色", "蓝色", "灰色", "粉色", "绿色", "卡其色"};
+    private static final String[] NOUNS = {"连衣裙", "羽绒服", "运动鞋", "蓝牙耳机", "积木", "自行车", "台灯", "书包",
+            "保温杯", "机械键盘", "显示器", "毛衣", "牛仔裤", "帆布鞋", "电饭煲", "收纳箱", "吉他", "滑板"};
+
+    @Test
+    void compareLikeAndFulltext() throws Exception {
+        String url = System.getProperty("bench.jdbc.url");
+        int rows = Integer.getInteger("bench.rows", 1_000_000);
+        try (Connection conn = DriverManager.getConnection(url,
+                System.getProperty("bench.jdbc.user", "root"), System.getProperty("bench.jdbc.password", ""))) {
+            seed(conn, rows);
+            System.out.printf("%-12s %12s %12s %10s %10s%n", "keyword", "like(ms)", "match(ms)", "like行数", "match行数");
+            for (String keyword : KEYWORDS) {
+                String likeSql = "SELECT id FROM " + TABLE + " WHERE (name LIKE ? OR description LIKE ?) "
+                        + "ORDER BY created_at DESC LIMIT 20";
+                String against = FulltextQuery.booleanQuery(keyword);
+                String matchSql = "SELECT id FROM " + TABLE + " WHERE MATCH(name, description) AGAINST(? IN BOOLEAN MODE) "
+                        + "ORDER BY " + FulltextQuery.matchExpression("name, description", against) + " DESC, created_at DESC LIMIT 20";
+                // 与 ProductService.adminWrapper 的LIKE回退一致
+                Timing like = time(conn, likeSql, "%" + keyword + "%", "%" + keyword + "%");
+                Timing match = time(conn, matchSql, against);
+                System.out.printf("%-12s %12.2f %12.2f %10d %10d%n", keyword, like.avgMillis, match.avgMillis, like.rows, match.rows);
+            }
+        }
+    }
+
+    private record Timing(double avgMillis, int rows) {}
+
+    private static Timing time(Connection conn, String sql, String... params) throws Exception {
+        int rows = 0;
+        long total = 0;
+        // 第一轮预热，不计时
+        for (int round = 0; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                for (int i = 0; i < params.length; i++) {
+                    ps.setString(i + 1, params[i]);
+                }
+                rows = 0;
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        rows++;
+                    }
+                }
+            }
+            if (round > 0) {
+                total += System.nanoTime() - start;
+            }
+        }
+        return new Timing(total / 1_000_000.0 / ROUNDS, rows);
+    }
+
+    private static void seed(Connection conn, int rows) throws Exception {
+        try (Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " ("
+                    + "id BIGINT PRIMARY KEY AUTO_INCREMENT, name VARCHAR(255), description TEXT, "
+                    + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                    + "FULLTEXT INDEX idx_bench_fulltext (name, description) WITH PARSER ngram"
+                    + ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4");
+            try (ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM " + TABLE)) {
+                rs.next();
+                if (rs.getLong(1) >= rows) {
+                    return;
+                }
+            }
+            st.execute("TRUNCATE TABLE " + TABLE);
+        }
+        Random random = new Random(42);
+        conn.setAutoCommit(false);
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO " + TABLE + " (name, description, created_at) VALUES (?, ?, FROM_UNIXTIME(?))")) {
+            long now = System.currentTimeMillis() / 1000;
+            for (int i = 1; i <= rows; i++) {
+                String noun = NOUNS[random.nextInt(NOUNS.length)];
+                ps.setString(1, ADJECTIVES[random.nextInt(ADJECTIVES.length)] + COLORS[random.nextInt(COLORS.length)] + noun);
+                ps.setString(2, "自用" + noun + "，" + COLORS[random.nextInt(COLORS.length)] + "，"
+                        + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + "，同城可自提，编号" + i);
+                ps.setLong(3, now - random.nextInt(365 * 24 * 3600));
+                ps.addBatch();
+                if (i % 5_000 == 0) {
+                    ps.executeBatch();
+                    conn.commit();
+                }
+            }
+            ps.executeBatch();
+            conn.commit();
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.stylemirror.miniapp_backend.bench;
+
+import com.stylemirror.miniapp_backend.domain.BannedWord;
+import com.stylemirror.miniapp_backend.repository.BannedWordMapper;
+import com.stylemirror.miniapp_backend.service.CacheService;
+import com.stylemirror.miniapp_backend.service.ModerationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 违禁词匹配基准：原实现（每个词 contains / String.replace）与 ModerationService 对比
+ * ModerationService 走线上路径（文本标准化 + 自动机扫描 + 映射回原文屏蔽），判定缓存关闭；
+ * moderateCached 为开启判定缓存后重复文本的耗时。
+ * 词典为随机的2~4字中文词，文本为约150字的商品描述；contains 用不含违禁词的描述（最常见的情况，
+ * 原实现要遍历整个词典），其余用含2个违禁词的描述
+ * 默认不运行：mvn test -Dtest=BannedWordMatcherBenchmark -Dbench.jmh=true
+ */
+@EnabledIfSystemProperty(named = "bench.jmh", matches = "true")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BannedWordMatcherBenchmark {
+
+    @Param({"10000", "100000"})
+    public int dictionarySize;
+
+    private List<String> words;
+    private ModerationService moderationService;
+    private ModerationService cachedModerationService;
+    private String text;
+    private String cleanText;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        Set<String> dictionary = new LinkedHashSet<>();
+        while (dictionary.size() < dictionarySize) {
+            StringBuilder word = new StringBuilder();
+            int length = 2 + random.nextInt(3);
+            for (int i = 0; i < length; i++) {
+                // 常用汉字区间
+                word.append((char) (0x4E00 + random.nextInt(3500)));
+            }
+            dictionary.add(word.toString());
+        }
+        words = new ArrayList<>(dictionary);
+        moderationService = moderationService(words, 0);
+        cachedModerationService = moderationService(words, 100_000);
+        text = "去年秋天在专柜购买，只穿过三四次，没有起球和污渍。尺码L，适合身高175-180。" + words.get(17)
+                + "因为搬家清理衣柜出售，支持当面验货，同城可以自提，外地包邮。价格可小刀，诚心要的私聊，" + words.get(dictionarySize / 2)
+                + "不接受退换，拍之前请看清楚照片和描述，谢谢。";
+        cleanText = "去年秋天在专柜购买，只穿过三四次，没有起球和污渍。尺码L，适合身高175-180。"
+                + "因为搬家清理衣柜出售，支持当面验货，同城可以自提，外地包邮。价格可小刀，诚心要的私聊，"
+                + "不接受退换，拍之前请看清楚照片和描述，谢谢。";
+    }
+
+    @Benchmark
+    public boolean containsNaive() {
+        for (String word : words) {
+            if (cleanText.contains(word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean containsService() {
+        return !moderationService.moderate(cleanText).clean();
+    }
+
+    @Benchmark
+    public String maskNaive() {
+        String filtered = text;
+        for (String word : words) {
+            filtered = filtered.replace(word, "*".repeat(word.length()));
+        }
+        return filtered;
+    }
+
+    @Benchmark
+    public String maskService() {
+        return moderationService.filterSensitiveWords(text);
+    }
+
+    @Benchmark
+    public ModerationService.Verdict moderate() {
+        return moderationService.moderate(text);
+    }
+
+    @Benchmark
+    public ModerationService.Verdict moderateCached() {
+        return cachedModerationService.moderate(text);
+    }
+
+    /**
+     * 词典来自桩Mapper，首次审核时同步加载；不共享Redis判定缓存
+     */
+    @SuppressWarnings("unchecked")
+    private static ModerationService moderationService(List<String> words, long verdictCacheSize) {
+        List<BannedWord> bannedWords = words.stream()
+                .map(word -> BannedWord.builder().word(word).category("其他").build())
+                .toList();
+        BannedWordMapper mapper = mock(BannedWordMapper.class);
+        when(mapper.selectActiveWordsWithCategory()).thenReturn(bannedWords);
+        return new ModerationService(mapper, mock(RedisTemplate.class), mock(RedisMessageListenerContainer.class),
+                mock(CacheService.class), new SimpleMeterRegistry(), 0, 5000, verdictCacheSize, false, 500,
+                Duration.ofHours(1));
+    }
+
+    @Test
+    void run() throws Exception {
+        new Runner(new OptionsBuilder().include(BannedWordMatcherBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,135 @@
+package com.stylemirror.miniapp_backend.bench;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.stylemirror.miniapp_backend.common.PageResponse;
+import com.stylemirror.miniapp_backend.config.CompactRedisSerializer;
+import com.stylemirror.miniapp_backend.domain.Product;
+import com.stylemirror.miniapp_backend.domain.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis值序列化基准：原 GenericJackson2JsonRedisSerializer（读取后还需 convertValue）与 CompactRedisSerializer 对比
+ * 默认不运行：mvn test -Dtest=RedisSerializerBenchmark -Dbench.jmh=true
+ */
+@EnabledIfSystemProperty(named = "bench.jmh", matches = "true")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisSerializerBenchmark {
+
+    @Param({"json", "smile", "smile-lz4"})
+    public String serializer;
+
+    @Param({"product", "user", "feed"})
+    public String entity;
+
+    private RedisSerializer<Object> redisSerializer;
+    private ObjectMapper objectMapper;
+    private Object value;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        redisSerializer = switch (serializer) {
+            case "json" -> new GenericJackson2JsonRedisSerializer(objectMapper);
+            case "smile" -> new CompactRedisSerializer(CompactRedisSerializer.Codec.SMILE, 0);
+            // 阈值调低，让商品描述也走压缩
+            default -> new CompactRedisSerializer(CompactRedisSerializer.Codec.SMILE, 128);
+        };
+        value = switch (entity) {
+            case "product" -> product();
+            case "user" -> user();
+            // 信息流一页（20个商品）
+            default -> PageResponse.of(Collections.nCopies(20, product()), 1, 20, 1000);
+        };
+        bytes = redisSerializer.serialize(value);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return redisSerializer.serialize(value);
+    }
+
+    /**
+     * 读取并得到目标类型（与 CacheService.get 的路径一致：不是目标类型时 convertValue；
+     * 信息流分页按 TypeReference 读取，两种序列化器都需要 convertValue）
+     */
+    @Benchmark
+    public Object deserialize() {
+        Object decoded = redisSerializer.deserialize(bytes);
+        Class<?> type = value.getClass();
+        return type.isInstance(decoded) ? decoded : objectMapper.convertValue(decoded, type);
+    }
+
+    @Test
+    void run() throws Exception {
+        for (String name : new String[]{"json", "smile", "smile-lz4"}) {
+            for (String type : new String[]{"product", "user", "feed"}) {
+                RedisSerializerBenchmark sizing = new RedisSerializerBenchmark();
+                sizing.serializer = name;
+                sizing.entity = type;
+                sizing.setup();
+                System.out.printf("%-10s %-8s %6d bytes%n", name, type, sizing.bytes.length);
+            }
+        }
+        new Runner(new OptionsBuilder().include(RedisSerializerBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static Product product() {
+        Product product = new Product();
+        product.setId(123456L);
+        product.setName("九成新 复古牛仔外套 男女同款");
+        product.setDescription("去年秋天在专柜购买，只穿过三四次，没有起球和污渍。尺码L，适合身高175-180。"
+                + "因为搬家清理衣柜出售，支持当面验货，同城可以自提，外地包邮。");
+        product.setCoverUrl("[\"https://twoshop.oss-cn-shenzhen.aliyuncs.com/products/2026/10/a1b2c3d4.jpg\","
+                + "\"https://twoshop.oss-cn-shenzhen.aliyuncs.com/products/2026/10/e5f6a7b8.jpg\"]");
+        product.setPrice(new BigDecimal("128.00"));
+        product.setStock(1);
+        product.setCategoryId(5L);
+        product.setSellerId(42L);
+        product.setLatitude(22.543096);
+        product.setLongitude(114.057865);
+        product.setCreatedAt(Instant.parse("2026-10-01T10:15:30Z"));
+        return product;
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setId(42L);
+        user.setOpenid("oAbCdEfGhIjKlMnOpQrStUvWxYz0");
+        user.setNickname("小镇衣橱");
+        user.setAvatarUrl("https://thirdwx.qlogo.cn/mmopen/vi_32/abcdefghijklmnopqrstuvwxyz/132");
+        user.setCreatedAt(Instant.parse("2025-06-01T08:00:00Z"));
+        return user;
+    }
+}
@@ -0,0 +1,71 @@
+package com.stylemirror.miniapp_backend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.stylemirror.miniapp_backend.domain.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactRedisSerializerTest {
+
+    private final CompactRedisSerializer serializer = new CompactRedisSerializer(CompactRedisSerializer.Codec.SMILE, 1024);
+
+    @Test
+    void shouldRestoreProjectTypesDirectly() {
+        Product product = product("连衣裙");
+
+        Object restored = serializer.deserialize(serializer.serialize(product));
+
+        assertThat(restored).isInstanceOf(Product.class);
+        assertThat(restored).usingRecursiveComparison().isEqualTo(product);
+    }
+
+    @Test
+    void shouldCompressLargeValues() {
+        Product product = product("连衣裙");
+        product.setDescription("九成新，尺码M，只穿过一次。".repeat(200));
+
+        byte[] bytes = serializer.serialize(product);
+
+        assertThat(bytes.length).isLessThan(product.getDescription().getBytes().length / 2);
+        assertThat(serializer.deserialize(bytes)).usingRecursiveComparison().isEqualTo(product);
+    }
+
+    @Test
+    void shouldKeepJdkValuesUntyped() {
+        assertThat(serializer.deserialize(serializer.serialize(42L))).isEqualTo(42);
+        assertThat(serializer.deserialize(serializer.serialize("product:1"))).isEqualTo("product:1");
+    }
+
+    @Test
+    void shouldReadLegacyJsonEntries() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        byte[] legacy = new GenericJackson2JsonRedisSerializer(objectMapper).serialize(product("连衣裙"));
+
+        Object restored = serializer.deserialize(legacy);
+
+        assertThat(restored).isInstanceOf(Map.class);
+        assertThat(((Map<?, ?>) restored).get("name")).isEqualTo("连衣裙");
+    }
+
+    private static Product product(String name) {
+        Product product = new Product();
+        product.setId(1L);
+        product.setName(name);
+        product.setDescription("九成新");
+        product.setCoverUrl("[\"https://example.com/1.jpg\"]");
+        product.setPrice(new BigDecimal("99.50"));
+        product.setCategoryId(3L);
+        product.setSellerId(7L);
+        product.setCreatedAt(Instant.parse("2026-10-17T08:00:00Z"));
+        return product;
+    }
+}
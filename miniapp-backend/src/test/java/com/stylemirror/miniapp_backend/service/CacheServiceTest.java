@@ -0,0 +1,270 @@
+package com.stylemirror.miniapp_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stylemirror.miniapp_backend.domain.Category;
+import com.stylemirror.miniapp_backend.domain.Product;
+import com.stylemirror.miniapp_backend.util.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisScriptingCommands;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("unchecked")
+class CacheServiceTest {
+
+    private static final String KEY = "category:1";
+
+    private final RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+    private final ValueOperations<String, Object> valueOps = mock(ValueOperations.class);
+    private final RedisConnection connection = mock(RedisConnection.class);
+    private final RedisStringCommands stringCommands = mock(RedisStringCommands.class);
+
+    // 回源锁是否空闲（其他节点未持有）
+    private final AtomicBoolean lockFree = new AtomicBoolean(true);
+    // Redis中的值、剩余过期时间（毫秒）和不存在标记，getOrLoad一次Pipeline读出
+    private volatile Object redisValue;
+    private volatile long redisTtlMillis = -2;
+    private volatile boolean redisMissing;
+    private final AtomicInteger pipelines = new AtomicInteger();
+    // 第几次Pipeline读取时持锁节点已回源完成（0表示不模拟），之后读到otherNodeValue，为null时读到不存在标记
+    private volatile int otherNodeDoneAt;
+    private volatile Object otherNodeValue;
+
+    private CacheService cacheService;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            int pipeline = pipelines.incrementAndGet();
+            if (otherNodeDoneAt > 0 && pipeline >= otherNodeDoneAt) {
+                return Arrays.asList(otherNodeValue, 600_000L, otherNodeValue == null);
+            }
+            return Arrays.asList(redisValue, redisTtlMillis, redisMissing);
+        });
+        when(redisTemplate.execute(any(RedisCallback.class)))
+                .thenAnswer(invocation -> ((RedisCallback<?>) invocation.getArgument(0)).doInRedis(connection));
+        when(connection.stringCommands()).thenReturn(stringCommands);
+        when(connection.scriptingCommands()).thenReturn(mock(RedisScriptingCommands.class));
+        when(stringCommands.set(any(byte[].class), any(byte[].class), any(Expiration.class),
+                any(RedisStringCommands.SetOption.class))).thenAnswer(invocation -> lockFree.get());
+
+        CacheMetrics cacheMetrics = new CacheMetrics(new SimpleMeterRegistry(), new CircuitBreaker(10, 5, 0.5, 200, 1000, 2));
+        CacheTtlPolicy ttlPolicy = new CacheTtlPolicy(cacheMetrics, Duration.ofMinutes(5), 20, 1, 10, 1, 0.25, 4, 0.1);
+        cacheService = new CacheService(redisTemplate, mock(RedisTemplate.class), new ObjectMapper(),
+                mock(RedisMessageListenerContainer.class), cacheMetrics, ttlPolicy, 200,
+                Duration.ofSeconds(1), Duration.ofSeconds(30), Duration.ofSeconds(2));
+    }
+
+    @Test
+    void shouldLoadOnceForConcurrentMisses() throws Exception {
+        int threads = 8;
+        CountDownLatch release = new CountDownLatch(1);
+        CountingLoader<Category> loader = new CountingLoader<>(() -> {
+            await(release);
+            return category("女装");
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Category>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> cacheService.getOrLoad(KEY, Category.class, loader, 600)));
+            }
+            // 所有线程都已读过Redis并进入本节点的合并回源后再放行loader
+            while (pipelines.get() < threads) {
+                Thread.sleep(5);
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<Category> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS).getName()).isEqualTo("女装");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(loader.calls()).isEqualTo(1);
+        verify(valueOps).set(eq(KEY), any(Category.class), anyLong(), eq(TimeUnit.SECONDS));
+    }
+
+    @Test
+    void shouldWaitForOtherNodeHoldingLock() {
+        lockFree.set(false);
+        otherNodeDoneAt = 3;
+        otherNodeValue = category("男装");
+        CountingLoader<Category> loader = new CountingLoader<>(() -> category("不应回源"));
+
+        Category value = cacheService.getOrLoad(KEY, Category.class, loader, 600);
+
+        assertThat(value.getName()).isEqualTo("男装");
+        assertThat(loader.calls()).isZero();
+        // 轮询直接读Redis，不经过get()
+        verify(valueOps, never()).get(KEY);
+    }
+
+    @Test
+    void shouldStopWaitingWhenOtherNodeWritesTombstone() {
+        lockFree.set(false);
+        otherNodeDoneAt = 2;
+        CountingLoader<Category> loader = new CountingLoader<>(() -> category("不应回源"));
+
+        assertThat(cacheService.getOrLoad(KEY, Category.class, loader, 600)).isNull();
+
+        assertThat(loader.calls()).isZero();
+        // 读到不存在标记后立即返回，不再等满超时
+        assertThat(pipelines.get()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldLoadItselfWhenOtherNodeNeverFills() {
+        lockFree.set(false);
+        CountingLoader<Category> loader = new CountingLoader<>(() -> category("童装"));
+
+        Category value = cacheService.getOrLoad(KEY, Category.class, loader, 600);
+
+        assertThat(value.getName()).isEqualTo("童装");
+        assertThat(loader.calls()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldServeStaleValueWhileOtherRequestRefreshes() {
+        redisValue = category("旧名称");
+        redisTtlMillis = 10_000;
+        lockFree.set(false);
+        CountingLoader<Category> loader = new CountingLoader<>(() -> category("新名称"));
+
+        Category value = cacheService.getOrLoad(KEY, Category.class, loader, 600);
+
+        assertThat(value.getName()).isEqualTo("旧名称");
+        assertThat(loader.calls()).isZero();
+    }
+
+    @Test
+    void shouldRefreshStaleValueWhenLockAcquired() {
+        redisValue = category("旧名称");
+        redisTtlMillis = 10_000;
+        CountingLoader<Category> loader = new CountingLoader<>(() -> category("新名称"));
+
+        Category value = cacheService.getOrLoad(KEY, Category.class, loader, 600);
+
+        assertThat(value.getName()).isEqualTo("新名称");
+        assertThat(loader.calls()).isEqualTo(1);
+        verify(valueOps).set(eq(KEY), any(Category.class), anyLong(), eq(TimeUnit.SECONDS));
+    }
+
+    @Test
+    void shouldReturnFreshValueWithoutLoading() {
+        redisValue = category("女装");
+        redisTtlMillis = 600_000;
+        CountingLoader<Category> loader = new CountingLoader<>(() -> category("不应回源"));
+
+        assertThat(cacheService.getOrLoad(KEY, Category.class, loader, 600).getName()).isEqualTo("女装");
+        assertThat(loader.calls()).isZero();
+    }
+
+    @Test
+    void shouldHonourTombstone() {
+        redisMissing = true;
+        CountingLoader<Category> loader = new CountingLoader<>(() -> category("不应回源"));
+
+        assertThat(cacheService.getOrLoad(KEY, Category.class, loader, 600)).isNull();
+        assertThat(loader.calls()).isZero();
+    }
+
+    @Test
+    void shouldWriteTombstoneWhenLoaderFindsNothing() {
+        CountingLoader<Category> loader = new CountingLoader<>(() -> null);
+
+        assertThat(cacheService.getOrLoad(KEY, Category.class, loader, 600)).isNull();
+
+        assertThat(loader.calls()).isEqualTo(1);
+        verify(valueOps).set(eq("missing:" + KEY), eq(1), anyLong(), eq(TimeUnit.SECONDS));
+        verify(valueOps, never()).set(eq(KEY), any(), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    void shouldFallBackToLoaderAndLocalCacheWhenRedisIsDown() {
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("连衣裙");
+        CountingLoader<Product> loader = new CountingLoader<>(() -> product);
+
+        Product first = cacheService.getOrLoad("product:1", Product.class, loader, 600);
+        Product second = cacheService.getOrLoad("product:1", Product.class, loader, 600);
+
+        assertThat(first.getName()).isEqualTo("连衣裙");
+        assertThat(second.getName()).isEqualTo("连衣裙");
+        // 第二次命中一级缓存，不再回源
+        assertThat(loader.calls()).isEqualTo(1);
+        verify(valueOps, never()).set(startsWith("product:"), any(), anyLong(), any(TimeUnit.class));
+    }
+
+    private static Category category(String name) {
+        Category category = new Category();
+        category.setId(1L);
+        category.setName(name);
+        return category;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class CountingLoader<T> implements Supplier<T> {
+        private final Supplier<T> delegate;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        CountingLoader(Supplier<T> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public T get() {
+            calls.incrementAndGet();
+            return delegate.get();
+        }
+
+        int calls() {
+            return calls.get();
+        }
+    }
+}
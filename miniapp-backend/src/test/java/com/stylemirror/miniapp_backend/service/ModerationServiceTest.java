@@ -0,0 +1,113 @@
+package com.stylemirror.miniapp_backend.service;
+
+import com.stylemirror.miniapp_backend.domain.BannedWord;
+import com.stylemirror.miniapp_backend.repository.BannedWordMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ModerationServiceTest {
+
+    private final BannedWordMapper mapper = mock(BannedWordMapper.class);
+
+    @Test
+    void shouldDropCachedVerdictsAfterDictionaryChange() {
+        dictionary("刷单");
+        ModerationService service = service(mock(CacheService.class), false);
+        assertThat(words(service.moderate("刷单好评"))).containsExactly("刷单");
+
+        // 新词典中下标0是另一个词，沿用旧判定会报成"代考"
+        dictionary("代考", "刷单");
+        service.onApplicationStarted();
+        assertThat(words(service.moderate("刷单好评"))).containsExactly("刷单");
+
+        dictionary("代考");
+        service.onApplicationStarted();
+        assertThat(service.moderate("刷单好评").clean()).isTrue();
+    }
+
+    @Test
+    void shouldMapCachedHitsToEachOriginal() {
+        dictionary("刷单");
+        ModerationService service = service(mock(CacheService.class), false);
+
+        // 三段文本标准化后都是"刷单好评"，第二、三次命中判定缓存
+        ModerationService.Verdict spaced = service.moderate("刷 单好评");
+        ModerationService.Verdict plain = service.moderate("刷单 好评");
+        ModerationService.Verdict quoted = service.moderate("「刷单」好评");
+
+        assertThat(spaced.matches()).containsExactly(new ModerationService.Match("刷单", "其他", 0, 3));
+        assertThat(spaced.maskedText()).isEqualTo("***好评");
+        assertThat(plain.matches()).containsExactly(new ModerationService.Match("刷单", "其他", 0, 2));
+        assertThat(plain.maskedText()).isEqualTo("** 好评");
+        assertThat(quoted.matches()).containsExactly(new ModerationService.Match("刷单", "其他", 1, 3));
+        assertThat(quoted.maskedText()).isEqualTo("「**」好评");
+    }
+
+    @Test
+    void shouldShareVerdictsThroughRedis() {
+        dictionary("刷单", "代考");
+        CacheService writer = mock(CacheService.class);
+        ModerationService first = service(writer, true);
+        ModerationService.Verdict expected = first.moderate("代考、刷单都接");
+
+        ArgumentCaptor<String> key = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object> encoded = ArgumentCaptor.forClass(Object.class);
+        verify(writer).backfill(key.capture(), encoded.capture(), eq(3600L));
+        assertThat(key.getValue()).startsWith("moderation:verdict:");
+
+        // 另一个节点：本地缓存为空，从Redis读到编码后的判定，不再扫描回填
+        CacheService reader = mock(CacheService.class);
+        when(reader.get(key.getValue(), String.class)).thenReturn((String) encoded.getValue());
+        ModerationService.Verdict shared = service(reader, true).moderate("代考、刷单都接");
+
+        assertThat(shared).usingRecursiveComparison().isEqualTo(expected);
+        verify(reader, never()).backfill(anyString(), any(), anyLong());
+    }
+
+    @Test
+    void shouldIgnoreSharedVerdictOutsideText() {
+        dictionary("刷单");
+        CacheService cacheService = mock(CacheService.class);
+        // 哈希碰撞或损坏的值：结束位置超出标准化文本长度
+        when(cacheService.get(anyString(), eq(String.class))).thenReturn("0:0:99");
+        ModerationService service = service(cacheService, true);
+
+        ModerationService.Verdict verdict = service.moderate("刷单好");
+
+        assertThat(verdict.matches()).containsExactly(new ModerationService.Match("刷单", "其他", 0, 2));
+        verify(cacheService).backfill(anyString(), eq("0:0:2"), eq(3600L));
+    }
+
+    private void dictionary(String... words) {
+        when(mapper.selectActiveWordsWithCategory()).thenReturn(Arrays.stream(words)
+                .map(word -> BannedWord.builder().word(word).category("其他").build())
+                .toList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private ModerationService service(CacheService cacheService, boolean shareVerdicts) {
+        return new ModerationService(mapper, mock(RedisTemplate.class), mock(RedisMessageListenerContainer.class),
+                cacheService, new SimpleMeterRegistry(), 1, 5000, 1000, shareVerdicts, 1, Duration.ofHours(1));
+    }
+
+    private static List<String> words(ModerationService.Verdict verdict) {
+        return verdict.matches().stream().map(ModerationService.Match::word).toList();
+    }
+}
@@ -0,0 +1,78 @@
+package com.stylemirror.miniapp_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AhoCorasickTest {
+
+    @Test
+    void shouldFindOverlappingMatches() {
+        AhoCorasick automaton = AhoCorasick.build(List.of("he", "she", "his", "hers"));
+
+        assertThat(matches(automaton, "ushers")).containsExactly("1:she", "2:he", "2:hers");
+    }
+
+    @Test
+    void shouldStopWhenHandlerReturnsFalse() {
+        AhoCorasick automaton = AhoCorasick.build(List.of("赌博", "博彩", "刷单"));
+        List<String> matches = new ArrayList<>();
+        automaton.forEachMatch("拒绝赌博彩票，不刷单", (start, end, word) -> {
+            matches.add(automaton.word(word));
+            return false;
+        });
+
+        assertThat(matches).containsExactly("赌博");
+    }
+
+    @Test
+    void shouldReportNothingWhenNothingMatches() {
+        assertThat(matches(AhoCorasick.build(List.of("代考")), "九成新外套")).isEmpty();
+        assertThat(matches(AhoCorasick.build(List.of()), "九成新外套")).isEmpty();
+        assertThat(AhoCorasick.build(List.of("", "代考", "代考")).size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldAgreeWithNaiveSearch() {
+        Random random = new Random(7);
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            words.add(randomText(random, 1 + random.nextInt(4)));
+        }
+        AhoCorasick automaton = AhoCorasick.build(words);
+        for (int i = 0; i < 200; i++) {
+            String text = randomText(random, 40);
+            Set<String> expected = new HashSet<>();
+            for (String word : words) {
+                for (int from = text.indexOf(word); from >= 0; from = text.indexOf(word, from + 1)) {
+                    expected.add(from + ":" + word);
+                }
+            }
+            assertThat(matches(automaton, text)).containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+
+    private static List<String> matches(AhoCorasick automaton, String text) {
+        List<String> matches = new ArrayList<>();
+        automaton.forEachMatch(text, (start, end, word) -> {
+            assertThat(text.substring(start, end)).isEqualTo(automaton.word(word));
+            matches.add(start + ":" + automaton.word(word));
+            return true;
+        });
+        return matches;
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + random.nextInt(6)));
+        }
+        return builder.toString();
+    }
+}
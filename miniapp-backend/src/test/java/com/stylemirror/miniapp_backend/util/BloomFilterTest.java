@@ -0,0 +1,40 @@
+package com.stylemirror.miniapp_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void shouldContainEveryInsertedValue() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(String.valueOf(i));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain(String.valueOf(i))).isTrue();
+        }
+    }
+
+    @Test
+    void shouldKeepFalsePositiveRateNearTarget() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(String.valueOf(i));
+        }
+        int falsePositives = 0;
+        for (int i = 10_000; i < 110_000; i++) {
+            if (filter.mightContain(String.valueOf(i))) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+    }
+
+    @Test
+    void shouldRejectValuesOfEmptyFilter() {
+        BloomFilter filter = BloomFilter.create(100, 0.01);
+        assertThat(filter.mightContain("abc123")).isFalse();
+    }
+}
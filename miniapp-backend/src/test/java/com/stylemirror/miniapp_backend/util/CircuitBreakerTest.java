@@ -0,0 +1,97 @@
+package com.stylemirror.miniapp_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    private static final long MS = 1_000_000;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final CircuitBreaker breaker = new CircuitBreaker(10, 5, 0.5, 200, 1000, 2, clock::get);
+
+    @Test
+    void shouldOpenWhenFailureRateReachesThreshold() {
+        for (int i = 0; i < 3; i++) {
+            call(false, 1);
+        }
+        call(true, 1);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        call(true, 1);
+        call(true, 1);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void shouldCountSlowCallsAsFailures() {
+        for (int i = 0; i < 5; i++) {
+            call(false, 500);
+        }
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.snapshot().slowCalls()).isEqualTo(5);
+    }
+
+    @Test
+    void shouldCloseAfterSuccessfulProbes() {
+        openBreaker();
+        clock.addAndGet(1000 * MS);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        // 探测名额已用完
+        assertThat(breaker.tryAcquire()).isFalse();
+        breaker.onSuccess(MS);
+        breaker.onSuccess(MS);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void shouldReopenWhenProbeFails() {
+        openBreaker();
+        clock.addAndGet(1000 * MS);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onFailure(MS);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.snapshot().opened()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRestartOpenTimerWhenFailureReportedWhileOpen() {
+        openBreaker();
+        clock.addAndGet(1000 * MS);
+        assertThat(breaker.isCallPermitted()).isTrue();
+
+        // 获取连接失败，未申请许可
+        breaker.onFailure(0);
+
+        assertThat(breaker.isCallPermitted()).isFalse();
+        assertThat(breaker.snapshot().opened()).isEqualTo(1);
+    }
+
+    private void openBreaker() {
+        for (int i = 0; i < 5; i++) {
+            call(true, 1);
+        }
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    private void call(boolean fail, long millis) {
+        assertThat(breaker.tryAcquire()).isTrue();
+        if (fail) {
+            breaker.onFailure(millis * MS);
+        } else {
+            breaker.onSuccess(millis * MS);
+        }
+    }
+}
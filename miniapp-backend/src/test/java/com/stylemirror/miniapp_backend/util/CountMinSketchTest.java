@@ -0,0 +1,45 @@
+package com.stylemirror.miniapp_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountMinSketchTest {
+
+    @Test
+    void shouldNeverUnderestimate() {
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+        for (int i = 0; i < 5000; i++) {
+            sketch.increment("product:" + (i % 500));
+        }
+        for (int i = 0; i < 500; i++) {
+            assertThat(sketch.estimate("product:" + i)).isGreaterThanOrEqualTo(10);
+        }
+    }
+
+    @Test
+    void shouldSeparateHotKeyFromBackground() {
+        CountMinSketch sketch = new CountMinSketch(4, 4096);
+        for (int i = 0; i < 2000; i++) {
+            sketch.increment("product:" + i);
+            if (i % 2 == 0) {
+                sketch.increment("product:hot");
+            }
+        }
+
+        assertThat(sketch.estimate("product:hot")).isGreaterThanOrEqualTo(1000);
+        assertThat(sketch.estimate("product:1")).isLessThan(10);
+    }
+
+    @Test
+    void shouldHalveCounts() {
+        CountMinSketch sketch = new CountMinSketch(4, 64);
+        for (int i = 0; i < 100; i++) {
+            sketch.increment("feed:all:latest:0:20");
+        }
+        sketch.halve();
+
+        assertThat(sketch.estimate("feed:all:latest:0:20")).isEqualTo(50);
+        assertThat(sketch.increment("feed:all:latest:0:20")).isEqualTo(51);
+    }
+}
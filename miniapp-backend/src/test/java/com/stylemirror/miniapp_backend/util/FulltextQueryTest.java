@@ -0,0 +1,27 @@
+package com.stylemirror.miniapp_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FulltextQueryTest {
+
+    @Test
+    void shouldRequireEveryTermAsPhrase() {
+        assertThat(FulltextQuery.booleanQuery(" 连衣裙  红色 ")).isEqualTo("+\"连衣裙\" +\"红色\"");
+    }
+
+    @Test
+    void shouldStripBooleanOperatorsAndQuotes() {
+        assertThat(FulltextQuery.booleanQuery("+iphone* -'壳' \"(pro)\"")).isNull();
+        assertThat(FulltextQuery.booleanQuery("+iphone* \"(pro)\" it's")).isEqualTo("+\"iphone\" +\"pro\" +\"its\"");
+    }
+
+    @Test
+    void shouldFallBackForShortOrEmptyKeywords() {
+        assertThat(FulltextQuery.booleanQuery("裙")).isNull();
+        assertThat(FulltextQuery.booleanQuery("a 连衣裙")).isNull();
+        assertThat(FulltextQuery.booleanQuery("  ")).isNull();
+        assertThat(FulltextQuery.booleanQuery("!!!")).isNull();
+    }
+}
@@ -0,0 +1,55 @@
+package com.stylemirror.miniapp_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class GeoUtilsTest {
+
+    @Test
+    void shouldComputeHaversineDistance() {
+        // 深圳市民中心 -> 深圳北站，直线距离约8公里
+        double distance = GeoUtils.distanceKm(22.5431, 114.0579, 22.6093, 114.0290);
+        assertThat(distance).isCloseTo(7.9, within(0.3));
+    }
+
+    @Test
+    void shouldContainEveryPointWithinRadiusInBoundingBox() {
+        GeoUtils.BoundingBox box = GeoUtils.boundingBox(22.5431, 114.0579, 3);
+        assertThat(box.contains(22.5431 + 0.026, 114.0579)).isTrue();
+        assertThat(box.contains(22.5431, 114.0579 + 0.029)).isTrue();
+        assertThat(box.contains(22.5431 + 0.03, 114.0579)).isFalse();
+    }
+
+    @Test
+    void shouldContainPointsAtEdgeOfRadius() {
+        double lat = 31.23;
+        double lng = 121.47;
+        GeoUtils.BoundingBox box = GeoUtils.boundingBox(lat, lng, 3);
+
+        // 正北2.998公里
+        double northLat = lat + 2.998 / GeoUtils.KM_PER_DEGREE_LAT;
+        assertThat(GeoUtils.distanceKm(lat, lng, northLat, lng)).isLessThan(3);
+        assertThat(box.contains(northLat, lng)).isTrue();
+
+        // 圆上经度差最大的点在比中心更靠近极点的纬度上
+        for (double bearing = 0; bearing < 360; bearing += 0.5) {
+            double[] point = destination(lat, lng, 2.9999, bearing);
+            assertThat(box.contains(point[0], point[1])).as("bearing %s", bearing).isTrue();
+        }
+    }
+
+    /**
+     * 从(lat, lng)沿方位角bearing（度）走distanceKm后的位置
+     */
+    private static double[] destination(double lat, double lng, double distanceKm, double bearing) {
+        double delta = distanceKm / GeoUtils.EARTH_RADIUS_KM;
+        double phi = Math.toRadians(lat);
+        double theta = Math.toRadians(bearing);
+        double phi2 = Math.asin(Math.sin(phi) * Math.cos(delta) + Math.cos(phi) * Math.sin(delta) * Math.cos(theta));
+        double lambda2 = Math.toRadians(lng) + Math.atan2(Math.sin(theta) * Math.sin(delta) * Math.cos(phi),
+                Math.cos(delta) - Math.sin(phi) * Math.sin(phi2));
+        return new double[] {Math.toDegrees(phi2), Math.toDegrees(lambda2)};
+    }
+}
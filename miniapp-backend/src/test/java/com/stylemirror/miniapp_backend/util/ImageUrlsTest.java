@@ -0,0 +1,22 @@
+package com.stylemirror.miniapp_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageUrlsTest {
+
+    @Test
+    void shouldDecodeJsonArray() {
+        assertThat(ImageUrls.decode("[\"https://a/1.jpg\",\"https://a/2.jpg\"]"))
+                .containsExactly("https://a/1.jpg", "https://a/2.jpg");
+    }
+
+    @Test
+    void shouldTreatPlainOrBrokenValueAsSingleImage() {
+        assertThat(ImageUrls.decode("https://a/1.jpg")).containsExactly("https://a/1.jpg");
+        assertThat(ImageUrls.decode("[broken")).containsExactly("[broken");
+        assertThat(ImageUrls.decode(null)).isEmpty();
+        assertThat(ImageUrls.decode("[]")).isEmpty();
+    }
+}
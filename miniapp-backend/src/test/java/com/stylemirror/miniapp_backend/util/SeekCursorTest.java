@@ -0,0 +1,46 @@
+package com.stylemirror.miniapp_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SeekCursorTest {
+
+    @Test
+    void shouldRoundTripCreatedAtCursor() {
+        Instant createdAt = Instant.parse("2025-11-24T08:30:00Z");
+        String encoded = SeekCursor.ofCreatedAt(createdAt, 42L).encode();
+
+        SeekCursor decoded = SeekCursor.decode(encoded, SeekCursor.KEY_CREATED_AT);
+        assertThat(decoded.createdAt()).isEqualTo(createdAt);
+        assertThat(decoded.id()).isEqualTo(42L);
+    }
+
+    @Test
+    void shouldRoundTripPriceCursor() {
+        String encoded = SeekCursor.ofPrice(new BigDecimal("199.90"), 7L).encode();
+
+        SeekCursor decoded = SeekCursor.decode(encoded, SeekCursor.KEY_PRICE);
+        assertThat(decoded.price()).isEqualByComparingTo("199.90");
+        assertThat(decoded.id()).isEqualTo(7L);
+    }
+
+    @Test
+    void shouldTreatBlankCursorAsFirstPage() {
+        assertThat(SeekCursor.decode("", SeekCursor.KEY_CREATED_AT)).isNull();
+        assertThat(SeekCursor.decode(null, SeekCursor.KEY_PRICE)).isNull();
+    }
+
+    @Test
+    void shouldRejectCursorOfOtherSortOrGarbage() {
+        String priceCursor = SeekCursor.ofPrice(BigDecimal.TEN, 1L).encode();
+        assertThatThrownBy(() -> SeekCursor.decode(priceCursor, SeekCursor.KEY_CREATED_AT))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SeekCursor.decode("not-a-cursor!", SeekCursor.KEY_CREATED_AT))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,32 @@
+package com.stylemirror.miniapp_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextNormalizerTest {
+
+    @Test
+    void shouldFoldCaseWidthAndSeparators() {
+        assertThat(TextNormalizer.normalize("色*情 Ｋ－粉\u200B，别ＢＢ").toString()).isEqualTo("色情k粉别bb");
+        assertThat(TextNormalizer.normalizeWord("K粉")).isEqualTo("k粉");
+        assertThat(TextNormalizer.normalizeWord("v信")).isEqualTo("v信");
+    }
+
+    @Test
+    void shouldMapMatchesBackToOriginalOffsets() {
+        String text = "出售 赌-博 机";
+        TextNormalizer.Normalized normalized = TextNormalizer.normalize(text);
+        AhoCorasick automaton = AhoCorasick.build(List.of("赌博"));
+        int[] range = new int[2];
+        automaton.forEachMatch(normalized, (start, end, word) -> {
+            range[0] = normalized.originalStart(start);
+            range[1] = normalized.originalEnd(end);
+            return false;
+        });
+
+        assertThat(text.substring(range[0], range[1])).isEqualTo("赌-博");
+    }
+}